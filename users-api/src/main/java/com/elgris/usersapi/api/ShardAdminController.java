@@ -0,0 +1,140 @@
+package com.elgris.usersapi.api;
+
+import com.elgris.usersapi.config.ShardingProperties;
+import com.elgris.usersapi.sharding.ShardRebalancer;
+import com.elgris.usersapi.sharding.ShardedUserRepository;
+import com.elgris.usersapi.sharding.UserShard;
+import com.elgris.usersapi.sharding.UserShardFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Administración de shards (solo con users.sharding.enabled=true y rol ADMIN en el JWT)
+ */
+@RestController
+@RequestMapping("/admin/shards")
+@ConditionalOnProperty(prefix = "users.sharding", name = "enabled", havingValue = "true")
+public class ShardAdminController {
+
+    @Autowired
+    private ShardedUserRepository shardedUserRepository;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private UserShardFactory userShardFactory;
+
+    @Autowired
+    private ShardingProperties shardingProperties;
+
+    @Secured("ROLE_ADMIN")
+    @RequestMapping(value = "", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> getShards() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("rebalancing", shardedUserRepository.isRebalancing());
+        status.put("partialListings", shardedUserRepository.getPartialListings());
+        status.put("shards", describeShards());
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * Añade al anillo un shard de users.sharding.standby-shards y mueve a él los usuarios que le
+     * corresponden, sin parar el servicio. La URL y las credenciales salen siempre de la
+     * configuración: una URL JDBC arbitraria permitiría ejecutar código (p. ej. INIT=RUNSCRIPT en H2).
+     * Sincronizado: la comprobación de nombre y el alta no pueden cruzarse con otra petición
+     */
+    @Secured("ROLE_ADMIN")
+    @RequestMapping(value = "/{name}", method = RequestMethod.POST)
+    public synchronized ResponseEntity<Map<String, Object>> addShard(@PathVariable String name) {
+        Map<String, Object> result = new HashMap<>();
+        ShardingProperties.Shard definition = shardingProperties.findStandbyShard(name);
+        if (definition == null || definition.getUrl() == null) {
+            result.put("error", "No standby shard declared in users.sharding.standby-shards: " + name);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(result);
+        }
+        if (shardedUserRepository.getRing().getShard(definition.getName()) != null) {
+            result.put("error", "Shard already exists: " + definition.getName());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+
+        UserShard shard = null;
+        int moved;
+        try {
+            shard = userShardFactory.create(definition.getName(), definition.getUrl(),
+                    definition.getUsername(), definition.getPassword());
+            moved = shardRebalancer.addShard(shard);
+        } catch (RuntimeException e) {
+            // El shard no entró en el anillo: liberar su pool y su Circuit Breaker
+            if (shard != null) {
+                userShardFactory.destroy(shard);
+            }
+            System.err.println("[ShardAdminController] Could not add shard " + definition.getName()
+                    + ": " + e.getMessage());
+            result.put("error", "Could not add shard " + definition.getName() + ": " + e.getMessage());
+            HttpStatus status = e instanceof IllegalArgumentException
+                    ? HttpStatus.CONFLICT
+                    : HttpStatus.INTERNAL_SERVER_ERROR;
+            return ResponseEntity.status(status).body(result);
+        }
+
+        result.put("shard", shard.getName());
+        result.put("movedUsers", moved);
+        result.put("shards", describeShards());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Borra de los shards antiguos las copias de los usuarios movidos. Solo se permite cuando los
+     * shards del anillo son los de users.sharding.shards, es decir, cuando el alta ya está en la
+     * configuración y el servicio arrancó con ella: si no, un reinicio perdería a esos usuarios
+     */
+    @Secured("ROLE_ADMIN")
+    @RequestMapping(value = "/orphans", method = RequestMethod.DELETE)
+    public synchronized ResponseEntity<Map<String, Object>> removeOrphans() {
+        Map<String, Object> result = new HashMap<>();
+        if (shardedUserRepository.isRebalancing()) {
+            result.put("error", "A shard is being added");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+
+        Set<String> running = new LinkedHashSet<>();
+        for (UserShard shard : shardedUserRepository.getRing().getShards()) {
+            running.add(shard.getName());
+        }
+        Set<String> configured = shardingProperties.configuredShardNames();
+        if (!running.equals(configured)) {
+            result.put("error", "Running shards " + running + " do not match users.sharding.shards " + configured
+                    + ": add the new shards to the configuration and restart before removing orphans");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
+
+        result.put("removedUsers", shardRebalancer.removeOrphans());
+        return ResponseEntity.ok(result);
+    }
+
+    private List<Map<String, Object>> describeShards() {
+        List<Map<String, Object>> shards = new ArrayList<>();
+        for (UserShard shard : shardedUserRepository.getRing().getShards()) {
+            Map<String, Object> description = new HashMap<>();
+            description.put("name", shard.getName());
+            description.put("circuitBreaker", shard.getCircuitBreaker().getState().toString());
+            shards.add(description);
+        }
+        return shards;
+    }
+}
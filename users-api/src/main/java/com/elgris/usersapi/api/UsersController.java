@@ -13,13 +13,16 @@ import org.springframework.http.ResponseEntity;
 import javax.servlet.http.HttpServletRequest;
 import java.util.HashMap;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 
 @RestController()
 @RequestMapping("/users")
 public class UsersController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    // Cada shard lee (page + 1) * size filas: no se sirven páginas más profundas
+    private static final long MAX_PAGE_OFFSET = 100000;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -27,9 +30,20 @@ public class UsersController {
     private UserService userService;
 
     @RequestMapping(value = "/", method = RequestMethod.GET)
-    public List<User> getUsers() {
+    public ResponseEntity<?> getUsers(@RequestParam(value = "page", required = false) Integer page,
+                                      @RequestParam(value = "size", defaultValue = "50") int size) {
+        if (page != null) {
+            int pageNumber = Math.max(0, page);
+            int pageSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+            if ((long) pageNumber * pageSize > MAX_PAGE_OFFSET) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "page * size must not exceed " + MAX_PAGE_OFFSET);
+                return ResponseEntity.badRequest().body(error);
+            }
+            return ResponseEntity.ok(userService.getUsersPage(pageNumber, pageSize));
+        }
         // Usar el servicio con Circuit Breaker
-        return userService.getAllUsers();
+        return ResponseEntity.ok(userService.getAllUsers());
     }
 
     @RequestMapping(value = "/{username}",  method = RequestMethod.GET)
@@ -0,0 +1,24 @@
+package com.elgris.usersapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.util.Assert;
+
+/**
+ * Converter Jackson para application/cbor (Spring 4.3 no trae ninguno)
+ */
+public class CborHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    public static final MediaType APPLICATION_CBOR = new MediaType("application", "cbor");
+
+    public CborHttpMessageConverter() {
+        this(new ObjectMapper(new CBORFactory()));
+    }
+
+    public CborHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper, APPLICATION_CBOR);
+        Assert.isInstanceOf(CBORFactory.class, objectMapper.getFactory(), "CBORFactory required");
+    }
+}
@@ -0,0 +1,43 @@
+package com.elgris.usersapi.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import java.util.List;
+
+@Configuration
+public class ContentNegotiationConfiguration extends WebMvcConfigurerAdapter {
+
+    // Builder de Spring Boot con la configuración spring.jackson.*
+    @Autowired(required = false)
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    /**
+     * Añade Smile (application/x-jackson-smile) y CBOR (application/cbor) para los
+     * clientes internos que los pidan en el Accept. Van al final de la lista para que
+     * JSON siga siendo el formato por defecto del frontend.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new SmileHttpMessageConverter(objectMapper(new SmileFactory())));
+        converters.add(new CborHttpMessageConverter(objectMapper(new CBORFactory())));
+    }
+
+    /**
+     * ObjectMapper binario con los mismos ajustes que el de JSON
+     */
+    private ObjectMapper objectMapper(JsonFactory factory) {
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+        if (objectMapperBuilder != null) {
+            objectMapperBuilder.configure(objectMapper);
+        }
+        return objectMapper;
+    }
+}
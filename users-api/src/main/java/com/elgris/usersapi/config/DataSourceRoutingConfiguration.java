@@ -0,0 +1,174 @@
+package com.elgris.usersapi.config;
+
+import com.elgris.usersapi.datasource.LatencyTracker;
+import com.elgris.usersapi.datasource.ReadReplica;
+import com.elgris.usersapi.datasource.ReadWriteRoutingDataSource;
+import com.elgris.usersapi.datasource.ReplicaReadRouter;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceBuilder;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.bind.PropertiesConfigurationFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.validation.BindException;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class DataSourceRoutingConfiguration {
+
+    private static final int LATENCY_WINDOW = 128;
+
+    /**
+     * Router de lecturas con un Circuit Breaker por réplica registrado en el CircuitBreakerRegistry
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ReplicaReadRouter replicaReadRouter(ReplicaDataSourceProperties replicaProperties,
+                                               CircuitBreakerRegistry registry) {
+        List<ReadReplica> readReplicas = new ArrayList<>();
+        List<ReplicaDataSourceProperties.Replica> replicas = replicaProperties.getReplicas();
+        for (int i = 0; i < replicas.size(); i++) {
+            String name = replicaName(i, replicas.get(i));
+            CircuitBreaker circuitBreaker = registry.circuitBreaker("database-" + name);
+
+            circuitBreaker.getEventPublisher()
+                    .onStateTransition(event ->
+                        System.out.printf("[Circuit Breaker] Replica %s CB: %s -> %s%n", name,
+                            event.getStateTransition().getFromState(),
+                            event.getStateTransition().getToState()));
+
+            readReplicas.add(new ReadReplica(name, circuitBreaker, new LatencyTracker(LATENCY_WINDOW)));
+        }
+
+        ReplicaDataSourceProperties.Hedge hedge = replicaProperties.getHedge();
+        ThreadPoolExecutor hedgeExecutor = hedge.isEnabled() && !readReplicas.isEmpty()
+                ? hedgeExecutor(hedge)
+                : null;
+
+        return new ReplicaReadRouter(readReplicas,
+                replicaProperties.getStrategy(),
+                hedgeExecutor != null,
+                hedge.getPercentile(),
+                hedge.getDefaultDelayMs(),
+                hedge.getMinDelayMs(),
+                hedge.getTimeoutMs(),
+                hedge.getBudgetPercent(),
+                hedgeExecutor);
+    }
+
+    private ThreadPoolExecutor hedgeExecutor(ReplicaDataSourceProperties.Hedge hedge) {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Cola acotada: si se llena, no se lanza el hedge y se espera a la primera réplica
+        return new ThreadPoolExecutor(hedge.getThreads(), hedge.getThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(hedge.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "replica-read-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Enlaza un prefijo del Environment sobre un objeto, como haría @ConfigurationProperties
+     */
+    private static <T> void bind(T target, String prefix, ConfigurableEnvironment environment) throws BindException {
+        PropertiesConfigurationFactory<T> factory = new PropertiesConfigurationFactory<>(target);
+        factory.setTargetName(prefix);
+        factory.setPropertySources(environment.getPropertySources());
+        factory.bindPropertiesToTarget();
+    }
+
+    static String replicaName(int index, ReplicaDataSourceProperties.Replica replica) {
+        return replica.getName() != null ? replica.getName() : "replica" + (index + 1);
+    }
+
+    /**
+     * Solo con réplicas configuradas: sin ellas se usa el DataSource que autoconfigura Spring Boot
+     */
+    @Configuration
+    @Conditional(ReplicasConfiguredCondition.class)
+    static class RoutingDataSourceConfiguration {
+
+        @Autowired
+        private ConfigurableEnvironment environment;
+
+        /**
+         * DataSource principal: el primario (spring.datasource.*) como destino por defecto
+         * y una entrada por cada réplica configurada en users.datasource.replicas
+         */
+        @Bean
+        @Primary
+        public DataSource dataSource(DataSourceProperties dataSourceProperties,
+                                     ReplicaDataSourceProperties replicaProperties) throws BindException {
+            // Pool del primario con los mismos ajustes (spring.datasource.tomcat.*) que tendría el autoconfigurado
+            org.apache.tomcat.jdbc.pool.DataSource primary = (org.apache.tomcat.jdbc.pool.DataSource)
+                    dataSourceProperties.initializeDataSourceBuilder()
+                            .type(org.apache.tomcat.jdbc.pool.DataSource.class)
+                            .build();
+            bind(primary, "spring.datasource.tomcat", environment);
+
+            ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource();
+            routingDataSource.setDefaultTargetDataSource(primary);
+
+            Map<Object, Object> targets = new HashMap<>();
+            List<ReplicaDataSourceProperties.Replica> replicas = replicaProperties.getReplicas();
+            for (int i = 0; i < replicas.size(); i++) {
+                ReplicaDataSourceProperties.Replica replica = replicas.get(i);
+                targets.put(replicaName(i, replica), DataSourceBuilder.create()
+                        .url(replica.getUrl())
+                        .driverClassName(replica.getDriverClassName() != null
+                                ? replica.getDriverClassName() : dataSourceProperties.determineDriverClassName())
+                        .username(replica.getUsername() != null
+                                ? replica.getUsername() : dataSourceProperties.determineUsername())
+                        .password(replica.getPassword() != null
+                                ? replica.getPassword() : dataSourceProperties.determinePassword())
+                        .build());
+            }
+            routingDataSource.setTargetDataSources(targets);
+
+            System.out.printf("[DataSource] Primary + %d read replica(s) configured%n", targets.size());
+            return routingDataSource;
+        }
+    }
+
+    /**
+     * Enlaza users.datasource igual que @ConfigurationProperties (también desde variables de
+     * entorno) y comprueba si hay alguna réplica
+     */
+    static class ReplicasConfiguredCondition extends SpringBootCondition {
+
+        @Override
+        public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            ReplicaDataSourceProperties properties = new ReplicaDataSourceProperties();
+            try {
+                bind(properties, "users.datasource", (ConfigurableEnvironment) context.getEnvironment());
+            } catch (BindException e) {
+                return ConditionOutcome.noMatch("users.datasource could not be bound: " + e.getMessage());
+            }
+            int replicas = properties.getReplicas().size();
+            return replicas > 0
+                    ? ConditionOutcome.match(replicas + " read replica(s) configured")
+                    : ConditionOutcome.noMatch("No read replicas configured");
+        }
+    }
+}
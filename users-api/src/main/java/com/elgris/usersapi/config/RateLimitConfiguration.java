@@ -0,0 +1,40 @@
+package com.elgris.usersapi.config;
+
+import com.elgris.usersapi.ratelimit.TokenBucketRateLimiter;
+import com.elgris.usersapi.security.RateLimitFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "users.rate-limit", name = "enabled", matchIfMissing = true)
+public class RateLimitConfiguration {
+
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter(RateLimitProperties properties) {
+        return new TokenBucketRateLimiter(properties.getCapacity(),
+                properties.getRefillPerSecond(),
+                properties.getIdleTimeoutMs(),
+                properties.getStripes());
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(TokenBucketRateLimiter tokenBucketRateLimiter,
+                                           RateLimitProperties properties) {
+        return new RateLimitFilter(tokenBucketRateLimiter, properties.getEndpointCosts(), properties.getDefaultCost());
+    }
+
+    /**
+     * El filtro solo debe ejecutarse dentro de la cadena de Spring Security (tras el JWT),
+     * no como filtro de servlet independiente
+     */
+    @Bean
+    public FilterRegistrationBean rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
@@ -0,0 +1,78 @@
+package com.elgris.usersapi.config;
+
+import com.elgris.usersapi.security.RateLimitFilter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limiting por cliente (prefijo users.rate-limit)
+ */
+@ConfigurationProperties(prefix = "users.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private long capacity = 50;                  // Tokens máximos (ráfaga) por cliente
+    private double refillPerSecond = 20;         // Tokens recuperados por segundo
+    private long idleTimeoutMs = 300000;         // Buckets inactivos 5 min se eliminan
+    private int stripes = 16;
+    private long defaultCost = 1;
+    private List<RateLimitFilter.EndpointCost> endpointCosts = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(long capacity) {
+        this.capacity = capacity;
+    }
+
+    public double getRefillPerSecond() {
+        return refillPerSecond;
+    }
+
+    public void setRefillPerSecond(double refillPerSecond) {
+        this.refillPerSecond = refillPerSecond;
+    }
+
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public long getDefaultCost() {
+        return defaultCost;
+    }
+
+    public void setDefaultCost(long defaultCost) {
+        this.defaultCost = defaultCost;
+    }
+
+    public List<RateLimitFilter.EndpointCost> getEndpointCosts() {
+        return endpointCosts;
+    }
+
+    public void setEndpointCosts(List<RateLimitFilter.EndpointCost> endpointCosts) {
+        this.endpointCosts = endpointCosts;
+    }
+}
@@ -0,0 +1,163 @@
+package com.elgris.usersapi.config;
+
+import com.elgris.usersapi.datasource.ReplicaSelectionStrategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de lectura y política de hedging (prefijo users.datasource)
+ */
+@ConfigurationProperties(prefix = "users.datasource")
+public class ReplicaDataSourceProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+    private ReplicaSelectionStrategy strategy = ReplicaSelectionStrategy.ROUND_ROBIN;
+    private final Hedge hedge = new Hedge();
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    public ReplicaSelectionStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(ReplicaSelectionStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public Hedge getHedge() {
+        return hedge;
+    }
+
+    public static class Replica {
+
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getDriverClassName() {
+            return driverClassName;
+        }
+
+        public void setDriverClassName(String driverClassName) {
+            this.driverClassName = driverClassName;
+        }
+    }
+
+    public static class Hedge {
+
+        private boolean enabled = false;
+        private double percentile = 0.95;        // Percentil de latencia tras el que se lanza la segunda lectura
+        private long defaultDelayMs = 50;        // Retraso mientras no hay muestras suficientes
+        private long minDelayMs = 5;
+        private long timeoutMs = 5000;          // Espera máxima a un hedge si la primera lectura falla
+        private int budgetPercent = 10;          // Máximo de lecturas que pueden lanzar un hedge
+        private int threads = 8;                 // Hilos para los hedges (la primera lectura va en el de la petición)
+        private int queueCapacity = 256;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public long getDefaultDelayMs() {
+            return defaultDelayMs;
+        }
+
+        public void setDefaultDelayMs(long defaultDelayMs) {
+            this.defaultDelayMs = defaultDelayMs;
+        }
+
+        public long getMinDelayMs() {
+            return minDelayMs;
+        }
+
+        public void setMinDelayMs(long minDelayMs) {
+            this.minDelayMs = minDelayMs;
+        }
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        public int getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(int budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.elgris.usersapi.config;
+
+import com.elgris.usersapi.models.User;
+import com.elgris.usersapi.repository.UserRepository;
+import com.elgris.usersapi.sharding.ConsistentHashRing;
+import com.elgris.usersapi.sharding.ShardRebalancer;
+import com.elgris.usersapi.sharding.ShardedUserRepository;
+import com.elgris.usersapi.sharding.UserShard;
+import com.elgris.usersapi.sharding.UserShardFactory;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sharding por username: solo se activa con users.sharding.enabled=true.
+ * Sin él, UserService sigue usando el UserRepository JPA (con réplicas de lectura).
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "users.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    @Bean
+    public UserShardFactory userShardFactory(CircuitBreakerRegistry registry, DataSourceProperties dataSourceProperties) {
+        return new UserShardFactory(registry,
+                dataSourceProperties.determineDriverClassName(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ShardedUserRepository shardedUserRepository(ShardingProperties properties, UserShardFactory factory) {
+        List<UserShard> shards = new ArrayList<>();
+        List<ShardingProperties.Shard> definitions = properties.getShards();
+        for (int i = 0; i < definitions.size(); i++) {
+            ShardingProperties.Shard definition = definitions.get(i);
+            UserShard shard = factory.create(properties.shardName(i), definition.getUrl(), definition.getUsername(), definition.getPassword());
+            shard.initializeSchema();
+            shards.add(shard);
+        }
+
+        System.out.printf("[Sharding] %d shard(s) configured%n", shards.size());
+        return new ShardedUserRepository(
+                new ConsistentHashRing(shards, properties.getVirtualNodes()),
+                scatterExecutor(properties.getThreads()),
+                properties.getTimeoutMs(),
+                properties.getMaxMissingShards());
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardedUserRepository shardedUserRepository, ShardingProperties properties) {
+        return new ShardRebalancer(shardedUserRepository, properties.getRebalanceBatchSize());
+    }
+
+    /**
+     * Entorno local: reparte en los shards los usuarios cargados en el primario (data.sql)
+     */
+    @Bean
+    public ApplicationRunner shardSeeder(ShardedUserRepository shardedUserRepository,
+                                         UserRepository userRepository,
+                                         ShardingProperties properties) {
+        return args -> {
+            if (!properties.isSeedFromPrimary() || !shardedUserRepository.findAll().isEmpty()) {
+                return;
+            }
+            int seeded = 0;
+            for (User user : userRepository.findAll()) {
+                shardedUserRepository.save(user);
+                seeded++;
+            }
+            System.out.printf("[Sharding] Seeded %d users from primary database%n", seeded);
+        };
+    }
+
+    private ExecutorService scatterExecutor(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "shard-query-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,168 @@
+package com.elgris.usersapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sharding del almacén de usuarios (prefijo users.sharding)
+ */
+@ConfigurationProperties(prefix = "users.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+    private List<Shard> shards = new ArrayList<>();
+    private List<Shard> standbyShards = new ArrayList<>();  // Fuera del anillo hasta activarlos por nombre en /admin/shards
+    private int virtualNodes = 128;              // Nodos virtuales por shard en el anillo
+    private int threads = 8;                     // Hilos para consultar los shards en paralelo
+    private long timeoutMs = 2000;               // Espera máxima de un listado (todos los shards)
+    private int maxMissingShards = 0;            // Shards que pueden faltar en un listado antes de fallar
+    private int rebalanceBatchSize = 500;
+    private boolean seedFromPrimary = false;     // Copiar los usuarios del primario si los shards están vacíos
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Nombre del shard de users.sharding.shards en esa posición: el declarado o shard&lt;posición&gt;
+     */
+    public String shardName(int index) {
+        String name = shards.get(index).getName();
+        return name != null ? name : "shard" + index;
+    }
+
+    /**
+     * Shards con los que arrancaría el servicio tras un reinicio
+     */
+    public Set<String> configuredShardNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = 0; i < shards.size(); i++) {
+            names.add(shardName(i));
+        }
+        return names;
+    }
+
+    public List<Shard> getStandbyShards() {
+        return standbyShards;
+    }
+
+    public void setStandbyShards(List<Shard> standbyShards) {
+        this.standbyShards = standbyShards;
+    }
+
+    /**
+     * @return el shard en espera con ese nombre, o null si no está declarado
+     */
+    public Shard findStandbyShard(String name) {
+        for (Shard shard : standbyShards) {
+            if (name.equals(shard.getName())) {
+                return shard;
+            }
+        }
+        return null;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public int getMaxMissingShards() {
+        return maxMissingShards;
+    }
+
+    public void setMaxMissingShards(int maxMissingShards) {
+        this.maxMissingShards = maxMissingShards;
+    }
+
+    public int getRebalanceBatchSize() {
+        return rebalanceBatchSize;
+    }
+
+    public void setRebalanceBatchSize(int rebalanceBatchSize) {
+        this.rebalanceBatchSize = rebalanceBatchSize;
+    }
+
+    public boolean isSeedFromPrimary() {
+        return seedFromPrimary;
+    }
+
+    public void setSeedFromPrimary(boolean seedFromPrimary) {
+        this.seedFromPrimary = seedFromPrimary;
+    }
+
+    public static class Shard {
+
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.elgris.usersapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.util.Assert;
+
+/**
+ * Converter Jackson para application/x-jackson-smile (Spring 4.3 no trae ninguno)
+ */
+public class SmileHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    public SmileHttpMessageConverter() {
+        this(new ObjectMapper(new SmileFactory()));
+    }
+
+    public SmileHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper, APPLICATION_SMILE);
+        Assert.isInstanceOf(SmileFactory.class, objectMapper.getFactory(), "SmileFactory required");
+    }
+}
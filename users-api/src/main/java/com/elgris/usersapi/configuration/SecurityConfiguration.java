@@ -1,28 +1,78 @@
 package com.elgris.usersapi.configuration;
 
 import com.elgris.usersapi.security.JwtAuthenticationFilter;
+import com.elgris.usersapi.security.RateLimitFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+import org.springframework.security.web.savedrequest.RequestCache;
 
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(securedEnabled = true)
 class HttpSecurityConfiguration {
 
+    /**
+     * JwtAuthenticationFilter es un @Component: sin esto Spring Boot lo registraría también
+     * como filtro de servlet y el token se validaría dos veces por petición
+     */
+    @Bean
+    public FilterRegistrationBean jwtAuthenticationFilterRegistration(JwtAuthenticationFilter jwtAuthenticationFilter) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * Cadena stateless para una API con bearer token. Sin los filtros por defecto
+     * (sesión, CSRF, request cache, persistencia del SecurityContext...): solo cabeceras
+     * de seguridad, JWT, rate limiting y autorización. Las peticiones sin token válido
+     * pasan por el rate limiting (por IP) antes de recibir el 401.
+     * No hay LogoutFilter: sin sesión ni cookies no hay nada que cerrar en el servidor.
+     * FilterChainProxy limpia el SecurityContext al acabar cada petición.
+     */
     @Configuration
     public static class ApiConfigurerAdatper extends WebSecurityConfigurerAdapter {
 
         @Autowired
         private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+        @Autowired(required = false)
+        private RateLimitFilter rateLimitFilter;
+
+        public ApiConfigurerAdatper() {
+            super(true);
+        }
+
         @Override
         protected void configure(HttpSecurity http) throws Exception {
+            http.setSharedObject(RequestCache.class, new NullRequestCache());
+
             http.antMatcher("/**")
-                    .addFilterAfter(jwtAuthenticationFilter, BasicAuthenticationFilter.class);
+                    .headers()
+                        .and()
+                    .addFilterAfter(jwtAuthenticationFilter, BasicAuthenticationFilter.class)
+                    .exceptionHandling()
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+                        .and()
+                    .anonymous()
+                        .and()
+                    .authorizeRequests()
+                        .antMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        .anyRequest().authenticated();
+
+            if (rateLimitFilter != null) {
+                http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
+            }
         }
     }
 }
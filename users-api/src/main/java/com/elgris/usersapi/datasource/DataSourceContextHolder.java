@@ -0,0 +1,25 @@
+package com.elgris.usersapi.datasource;
+
+/**
+ * Guarda, por hilo, la réplica a la que se debe enrutar la próxima conexión.
+ * Si no hay valor, {@link ReadWriteRoutingDataSource} usa el primario.
+ */
+public final class DataSourceContextHolder {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private DataSourceContextHolder() {
+    }
+
+    public static void set(String dataSourceName) {
+        CURRENT.set(dataSourceName);
+    }
+
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
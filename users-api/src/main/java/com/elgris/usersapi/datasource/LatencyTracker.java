@@ -0,0 +1,55 @@
+package com.elgris.usersapi.datasource;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ventana circular con las últimas latencias (en nanosegundos) de una réplica.
+ * Sirve para calcular percentiles (retraso del hedge) y una media móvil (least-latency).
+ */
+public class LatencyTracker {
+
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+    private volatile double ewmaNanos = 0;
+
+    public LatencyTracker(int windowSize) {
+        this.samples = new AtomicLongArray(windowSize);
+    }
+
+    public void record(long nanos) {
+        long index = count.getAndIncrement();
+        samples.set((int) (index % samples.length()), nanos);
+        // Carrera benigna: perder una actualización de la media no afecta al enrutado
+        double current = ewmaNanos;
+        ewmaNanos = current == 0 ? nanos : current + EWMA_ALPHA * (nanos - current);
+    }
+
+    public long getSampleCount() {
+        return Math.min(count.get(), samples.length());
+    }
+
+    public double getAverageNanos() {
+        return ewmaNanos;
+    }
+
+    /**
+     * Percentil de la ventana actual, o -1 si todavía no hay muestras
+     */
+    public long percentileNanos(double percentile) {
+        int size = (int) getSampleCount();
+        if (size == 0) {
+            return -1;
+        }
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        int rank = (int) Math.ceil(percentile * size) - 1;
+        return copy[Math.max(0, Math.min(rank, size - 1))];
+    }
+}
@@ -0,0 +1,64 @@
+package com.elgris.usersapi.datasource;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import java.util.function.Supplier;
+
+/**
+ * Una réplica de lectura: su clave en el {@link ReadWriteRoutingDataSource},
+ * su Circuit Breaker propio y su historial de latencias.
+ */
+public class ReadReplica {
+
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyTracker latencyTracker;
+
+    public ReadReplica(String name, CircuitBreaker circuitBreaker, LatencyTracker latencyTracker) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.latencyTracker = latencyTracker;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public LatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+
+    /**
+     * La réplica acepta tráfico mientras su Circuit Breaker no esté abierto
+     */
+    public boolean isAvailable() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    /**
+     * Ejecuta la consulta en el hilo actual enrutada a esta réplica
+     */
+    public <T> T execute(Supplier<T> query) {
+        return circuitBreaker.executeSupplier(() -> {
+            String previous = DataSourceContextHolder.get();
+            DataSourceContextHolder.set(name);
+            long start = System.nanoTime();
+            try {
+                T result = query.get();
+                latencyTracker.record(System.nanoTime() - start);
+                return result;
+            } finally {
+                if (previous == null) {
+                    DataSourceContextHolder.clear();
+                } else {
+                    DataSourceContextHolder.set(previous);
+                }
+            }
+        });
+    }
+}
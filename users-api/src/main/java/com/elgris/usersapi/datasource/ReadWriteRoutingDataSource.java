@@ -0,0 +1,27 @@
+package com.elgris.usersapi.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * DataSource que envía las lecturas marcadas a una réplica y todo lo demás
+ * (escrituras, DDL, data.sql) al primario, que es el target por defecto.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private Object primaryDataSource;
+
+    @Override
+    public void setDefaultTargetDataSource(Object defaultTargetDataSource) {
+        super.setDefaultTargetDataSource(defaultTargetDataSource);
+        this.primaryDataSource = defaultTargetDataSource;
+    }
+
+    public Object getPrimaryDataSource() {
+        return primaryDataSource;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return DataSourceContextHolder.get();
+    }
+}
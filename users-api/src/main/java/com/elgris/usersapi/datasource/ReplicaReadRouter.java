@@ -0,0 +1,297 @@
+package com.elgris.usersapi.datasource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta lecturas contra el pool de réplicas.
+ *
+ * Con hedging activo, si la réplica elegida no responde antes de su percentil
+ * configurado (p95 por defecto), la misma consulta se lanza en una segunda réplica
+ * y gana la primera respuesta. La primera consulta va en el hilo de la petición;
+ * el pool de hedging solo ejecuta los hedges. El hedging tiene presupuesto (un porcentaje de las
+ * lecturas) y se omite si el pool no tiene hilos libres. Si una réplica falla se
+ * prueba otra; si no quedan réplicas disponibles o todas fallan, se lee del primario.
+ */
+public class ReplicaReadRouter {
+
+    private static final int MIN_SAMPLES_FOR_PERCENTILE = 20;
+
+    private final List<ReadReplica> replicas;
+    private final ReplicaSelectionStrategy strategy;
+    private final boolean hedgingEnabled;
+    private final double hedgePercentile;
+    private final long defaultHedgeDelayMs;
+    private final long minHedgeDelayMs;
+    private final long readTimeoutMs;
+    private final int hedgeBudgetPercent;
+    private final ThreadPoolExecutor hedgeExecutor;
+    private final ScheduledThreadPoolExecutor hedgeTimer;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+
+    public ReplicaReadRouter(List<ReadReplica> replicas,
+                             ReplicaSelectionStrategy strategy,
+                             boolean hedgingEnabled,
+                             double hedgePercentile,
+                             long defaultHedgeDelayMs,
+                             long minHedgeDelayMs,
+                             long readTimeoutMs,
+                             int hedgeBudgetPercent,
+                             ThreadPoolExecutor hedgeExecutor) {
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.strategy = strategy;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.defaultHedgeDelayMs = defaultHedgeDelayMs;
+        this.minHedgeDelayMs = minHedgeDelayMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.hedgeBudgetPercent = hedgeBudgetPercent;
+        this.hedgeExecutor = hedgeExecutor;
+        this.hedgeTimer = hedgingEnabled ? hedgeTimer() : null;
+    }
+
+    /**
+     * Ejecuta una consulta de solo lectura en una réplica (o en el primario como fallback)
+     */
+    public <T> T read(Supplier<T> query) {
+        ReadReplica first = select(null);
+        if (first == null) {
+            return query.get();
+        }
+        reads.incrementAndGet();
+
+        try {
+            if (!hedgingEnabled) {
+                return readWithRetry(first, query);
+            }
+            return hedgedRead(first, query);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return query.get();
+        } catch (Exception e) {
+            System.err.println("[ReplicaReadRouter] Replica read failed, falling back to primary: " + e);
+            return query.get();
+        }
+    }
+
+    public List<ReadReplica> getReplicas() {
+        return replicas;
+    }
+
+    public long getHedgedReads() {
+        return hedges.get();
+    }
+
+    public void shutdown() {
+        if (hedgeTimer != null) {
+            hedgeTimer.shutdownNow();
+        }
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor hedgeTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "replica-hedge-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Casi todas las lecturas terminan antes del hedge: no acumular temporizadores cancelados
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * Lee en el hilo actual; si la réplica falla se prueba otra antes de ir al primario
+     */
+    private <T> T readWithRetry(ReadReplica first, Supplier<T> query) {
+        try {
+            return first.execute(query);
+        } catch (RuntimeException e) {
+            ReadReplica second = select(first);
+            if (second == null) {
+                throw e;
+            }
+            return second.execute(query);
+        }
+    }
+
+    /**
+     * La primera consulta se hace en el hilo actual; solo el hedge usa el pool, lanzado
+     * por un temporizador al cumplirse el retraso. Si el hedge gana, interrumpe al hilo
+     * actual para que deje de esperar a la réplica lenta (si el driver no atiende la
+     * interrupción, se espera a que termine y se devuelve igualmente el hedge).
+     */
+    private <T> T hedgedRead(ReadReplica first, Supplier<T> query) throws Exception {
+        HedgedAttempt<T> attempt = new HedgedAttempt<>(Thread.currentThread());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readTimeoutMs);
+        ScheduledFuture<?> timer = hedgeTimer.schedule(() -> startHedge(attempt, first, query),
+                hedgeDelayMillis(first), TimeUnit.MILLISECONDS);
+
+        T result;
+        try {
+            result = first.execute(query);
+        } catch (RuntimeException e) {
+            timer.cancel(false);
+            attempt.finishFirst();
+            if (attempt.winner.isDone()) {
+                return attempt.winner.get();
+            }
+            if (attempt.hedgeStarted) {
+                return attempt.hedgeResult.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            // Falló antes del hedge: probar otra réplica antes que el primario
+            ReadReplica second = select(first);
+            if (second == null) {
+                throw e;
+            }
+            return second.execute(query);
+        }
+
+        timer.cancel(false);
+        attempt.finishFirst();
+        // Si el hedge ya había contestado, su respuesta fue la primera
+        attempt.winner.complete(result);
+        return attempt.winner.get();
+    }
+
+    private <T> void startHedge(HedgedAttempt<T> attempt, ReadReplica first, Supplier<T> query) {
+        if (attempt.isFirstFinished() || !canHedge()) {
+            return;
+        }
+        ReadReplica second = select(first);
+        if (second == null) {
+            return;
+        }
+        try {
+            hedgeExecutor.execute(() -> {
+                try {
+                    T value = second.execute(query);
+                    attempt.hedgeResult.complete(value);
+                    if (attempt.winner.complete(value)) {
+                        attempt.interruptFirst();
+                    }
+                } catch (Throwable t) {
+                    attempt.hedgeResult.completeExceptionally(t);
+                }
+            });
+            attempt.hedgeStarted = true;
+            hedges.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            // Pool lleno: sin hedge, se espera a la primera réplica
+        }
+    }
+
+    /**
+     * Presupuesto de hedging: como mucho hedgeBudgetPercent de las lecturas, y nunca
+     * si el pool no tiene hilos libres (duplicar carga cuando ya está saturado solo empeora)
+     */
+    private boolean canHedge() {
+        if (hedges.get() * 100 >= reads.get() * hedgeBudgetPercent) {
+            return false;
+        }
+        return hedgeExecutor.getActiveCount() < hedgeExecutor.getMaximumPoolSize();
+    }
+
+    long hedgeDelayMillis(ReadReplica replica) {
+        LatencyTracker tracker = replica.getLatencyTracker();
+        long delay = defaultHedgeDelayMs;
+        if (tracker.getSampleCount() >= MIN_SAMPLES_FOR_PERCENTILE) {
+            delay = TimeUnit.NANOSECONDS.toMillis(tracker.percentileNanos(hedgePercentile));
+        }
+        return Math.max(minHedgeDelayMs, delay);
+    }
+
+    ReadReplica select(ReadReplica exclude) {
+        if (strategy == ReplicaSelectionStrategy.LEAST_LATENCY) {
+            return selectLeastLatency(exclude);
+        }
+        return selectRoundRobin(exclude);
+    }
+
+    private ReadReplica selectRoundRobin(ReadReplica exclude) {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReadReplica candidate = replicas.get((start + i) % size);
+            if (candidate != exclude && candidate.isAvailable()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private ReadReplica selectLeastLatency(ReadReplica exclude) {
+        ReadReplica best = null;
+        for (ReadReplica candidate : replicas) {
+            if (candidate == exclude || !candidate.isAvailable()) {
+                continue;
+            }
+            // Las réplicas sin muestras (media 0) se eligen primero para calentarlas
+            if (best == null || candidate.getLatencyTracker().getAverageNanos()
+                    < best.getLatencyTracker().getAverageNanos()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Estado de una lectura con hedge. La interrupción del hilo que hace la primera
+     * consulta solo se entrega mientras esa consulta sigue en curso, y se limpia después.
+     */
+    private static class HedgedAttempt<T> {
+
+        private static final int RUNNING = 0;
+        private static final int FINISHED = 1;
+        private static final int INTERRUPTING = 2;
+        private static final int INTERRUPTED = 3;
+
+        private final Thread firstThread;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        private final CompletableFuture<T> winner = new CompletableFuture<>();
+        private final CompletableFuture<T> hedgeResult = new CompletableFuture<>();
+        private volatile boolean hedgeStarted;
+
+        HedgedAttempt(Thread firstThread) {
+            this.firstThread = firstThread;
+        }
+
+        boolean isFirstFinished() {
+            return state.get() != RUNNING;
+        }
+
+        void interruptFirst() {
+            if (state.compareAndSet(RUNNING, INTERRUPTING)) {
+                firstThread.interrupt();
+                state.set(INTERRUPTED);
+            }
+        }
+
+        void finishFirst() {
+            if (!state.compareAndSet(RUNNING, FINISHED)) {
+                while (state.get() != INTERRUPTED) {
+                    Thread.yield();
+                }
+                // La interrupción era nuestra: no debe llegar al resto de la petición
+                Thread.interrupted();
+            }
+        }
+    }
+}
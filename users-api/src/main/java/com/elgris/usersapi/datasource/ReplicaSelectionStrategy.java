@@ -0,0 +1,6 @@
+package com.elgris.usersapi.datasource;
+
+public enum ReplicaSelectionStrategy {
+    ROUND_ROBIN,
+    LEAST_LATENCY
+}
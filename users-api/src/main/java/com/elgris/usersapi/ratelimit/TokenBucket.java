@@ -0,0 +1,39 @@
+package com.elgris.usersapi.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin locks expresado como GCRA: en lugar de guardar tokens y
+ * última recarga, guarda un único instante teórico ("tat") en el que el bucket
+ * vuelve a estar lleno, y lo avanza con CAS.
+ */
+class TokenBucket {
+
+    private final AtomicLong theoreticalArrivalNanos = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @return 0 si se consumieron los tokens, o los nanosegundos a esperar si no hay suficientes
+     */
+    long tryConsume(long costNanos, long burstNanos, long now) {
+        while (true) {
+            long current = theoreticalArrivalNanos.get();
+            long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = base + costNanos;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Un bucket lleno desde hace más de idleNanos equivale a uno nuevo y se puede descartar
+     */
+    boolean isIdle(long idleNanos, long now) {
+        long current = theoreticalArrivalNanos.get();
+        return current == Long.MIN_VALUE || now - current > idleNanos;
+    }
+}
@@ -0,0 +1,105 @@
+package com.elgris.usersapi.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limiter por cliente: un {@link TokenBucket} por clave, repartidos en
+ * varias franjas (stripes). Cada cierto número de llamadas se barre una franja
+ * para eliminar buckets inactivos, sin bloquear al resto.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int SWEEP_EVERY_CALLS = 1024;
+
+    private final ConcurrentMap<String, TokenBucket>[] stripes;
+    private final long capacity;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final long idleNanos;
+    private final LongSupplier clock;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicInteger nextStripeToSweep = new AtomicInteger();
+
+    public TokenBucketRateLimiter(long capacity, double refillTokensPerSecond, long idleTimeoutMs, int stripeCount) {
+        this(capacity, refillTokensPerSecond, idleTimeoutMs, stripeCount, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    TokenBucketRateLimiter(long capacity, double refillTokensPerSecond, long idleTimeoutMs, int stripeCount,
+                           LongSupplier clock) {
+        if (capacity <= 0 || refillTokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1) / refillTokensPerSecond);
+        this.burstNanos = capacity * nanosPerToken;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.clock = clock;
+
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ConcurrentMap[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Intenta consumir cost tokens del bucket de la clave
+     *
+     * @return 0 si se permite la petición, o los nanosegundos hasta que habrá tokens suficientes
+     */
+    public long tryConsume(String key, long cost) {
+        if (cost <= 0) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        if (calls.incrementAndGet() % SWEEP_EVERY_CALLS == 0) {
+            evictIdle(nextStripeToSweep.getAndIncrement() & (stripes.length - 1), now);
+        }
+
+        // Un coste mayor que la capacidad nunca cabría: se limita a vaciar el bucket
+        long costNanos = Math.min(cost, capacity) * nanosPerToken;
+        ConcurrentMap<String, TokenBucket> stripe = stripeFor(key);
+        while (true) {
+            TokenBucket bucket = stripe.computeIfAbsent(key, k -> new TokenBucket());
+            long waitNanos = bucket.tryConsume(costNanos, burstNanos, now);
+            // Si el barrido lo eliminó mientras tanto, el consumo se perdería: cobrar en el bucket vigente
+            if (stripe.get(key) == bucket) {
+                return waitNanos;
+            }
+        }
+    }
+
+    /**
+     * Elimina los buckets inactivos de todas las franjas
+     */
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        for (int i = 0; i < stripes.length; i++) {
+            evictIdle(i, now);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentMap<String, TokenBucket> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private void evictIdle(int stripe, long now) {
+        // Solo se descartan buckets llenos; si una petición cobra en uno ya eliminado, tryConsume reintenta
+        stripes[stripe].values().removeIf(bucket -> bucket.isIdle(idleNanos, now));
+    }
+
+    private ConcurrentMap<String, TokenBucket> stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
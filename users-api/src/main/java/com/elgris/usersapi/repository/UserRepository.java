@@ -1,11 +1,11 @@
 package com.elgris.usersapi.repository;
 
 import com.elgris.usersapi.models.User;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.List;
 
-public interface UserRepository extends CrudRepository<User, Long> {
+public interface UserRepository extends PagingAndSortingRepository<User, Long> {
     User findOneByUsername(String username);
     User findByUsername(String username);
     User getByUsername(String username);
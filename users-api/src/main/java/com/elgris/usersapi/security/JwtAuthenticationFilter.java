@@ -2,55 +2,81 @@ package com.elgris.usersapi.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
-import org.springframework.web.filter.GenericFilterBean;
+import org.springframework.web.filter.OncePerRequestFilter;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
-import javax.servlet.ServletRequest;
-import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
+/**
+ * Valida el bearer token una vez por petición. Al ser un OncePerRequestFilter no vuelve a
+ * ejecutarse en el dispatch ERROR que Spring Boot también pasa por la cadena de seguridad
+ */
 @Component
-public class JwtAuthenticationFilter extends GenericFilterBean {
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Value("${jwt.secret}")
     private String jwtSecret;
 
-    public void doFilter(final ServletRequest req, final ServletResponse res, final FilterChain chain)
-            throws IOException, ServletException {
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private int claimsCacheMaxSize;
+
+    @Value("${jwt.claims-cache.ttl-ms:300000}")
+    private long claimsCacheTtlMs;
+
+    private JwtClaimsCache claimsCache;
+
+    @Override
+    protected void initFilterBean() throws ServletException {
+        claimsCache = new JwtClaimsCache(claimsCacheMaxSize, claimsCacheTtlMs);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain chain) throws IOException, ServletException {
 
-        final HttpServletRequest request = (HttpServletRequest) req;
-        final HttpServletResponse response = (HttpServletResponse) res;
         final String authHeader = request.getHeader("authorization");
 
         if ("OPTIONS".equals(request.getMethod())) {
             response.setStatus(HttpServletResponse.SC_OK);
 
-            chain.doFilter(req, res);
+            chain.doFilter(request, response);
         } else {
 
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                throw new ServletException("Missing or invalid Authorization header");
+                // Sin credenciales: el rate limiting (por IP) y después la autorización (401) deciden
+                chain.doFilter(request, response);
+                return;
             }
 
             final String token = authHeader.substring(7);
 
-            try {
-                final Claims claims = Jwts.parser()
-                        .setSigningKey(jwtSecret.getBytes())
-                        .parseClaimsJws(token)
-                        .getBody();
-                request.setAttribute("claims", claims);
-            } catch (final SignatureException e) {
-                throw new ServletException("Invalid token");
+            JwtClaimsCache.Entry entry = claimsCache.get(token);
+            if (entry == null) {
+                try {
+                    final Claims claims = Jwts.parser()
+                            .setSigningKey(jwtSecret.getBytes())
+                            .parseClaimsJws(token)
+                            .getBody();
+                    entry = claimsCache.put(token, claims);
+                } catch (final JwtException | IllegalArgumentException e) {
+                    // Token inválido: se trata como petición sin autenticar
+                    chain.doFilter(request, response);
+                    return;
+                }
             }
 
-            chain.doFilter(req, res);
+            request.setAttribute("claims", entry.getClaims());
+            // Cadena stateless: el contexto vive solo durante la petición
+            SecurityContextHolder.getContext().setAuthentication(entry.getAuthentication());
+
+            chain.doFilter(request, response);
         }
     }
-}
\ No newline at end of file
+}
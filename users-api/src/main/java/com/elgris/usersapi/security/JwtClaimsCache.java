@@ -0,0 +1,152 @@
+package com.elgris.usersapi.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache de tokens ya verificados: evita repetir la validación de la firma y el
+ * parseo del JWT en cada petición del mismo cliente. Solo se guardan tokens
+ * válidos y nunca más allá de su claim exp.
+ * Acotada a unas maxSize entradas sin lock global: al llenarse se toma una muestra de
+ * entradas y se descarta una expirada o, si no hay, la usada hace más tiempo (LRU aproximado).
+ * Con escrituras concurrentes puede pasarse de maxSize en tantas entradas como hilos.
+ */
+public class JwtClaimsCache {
+
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+
+    public JwtClaimsCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @return la entrada del token, o null si no está en cache o ya expiró
+     */
+    public Entry get(String token) {
+        Entry entry = entries.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(token, entry);
+            return null;
+        }
+        entry.touch();
+        return entry;
+    }
+
+    /**
+     * Crea la entrada de unos claims ya verificados y la guarda, expulsando la menos usada si está llena
+     */
+    public Entry put(String token, Claims claims) {
+        long now = System.currentTimeMillis();
+        Date expiration = claims.getExpiration();
+        long expiresAt = now + ttlMillis;
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration.getTime());
+        }
+
+        Entry entry = new Entry(claims, toAuthentication(claims), expiresAt);
+        if (maxSize <= 0) {
+            return entry;
+        }
+        if (entry.isExpired(now)) {
+            return entry;
+        }
+        while (entries.size() >= maxSize && !entries.containsKey(token)) {
+            if (!evictOne(now)) {
+                break;
+            }
+        }
+        entries.put(token, entry);
+        return entry;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Expulsa de una muestra de entradas la primera expirada o la menos usada
+     *
+     * @return false si no había nada que expulsar
+     */
+    private boolean evictOne(long now) {
+        Map.Entry<String, Entry> victim = null;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        for (int i = 0; i < EVICTION_SAMPLE_SIZE && iterator.hasNext(); i++) {
+            Map.Entry<String, Entry> candidate = iterator.next();
+            if (candidate.getValue().isExpired(now)) {
+                victim = candidate;
+                break;
+            }
+            if (victim == null || candidate.getValue().lastAccessNanos < victim.getValue().lastAccessNanos) {
+                victim = candidate;
+            }
+        }
+        if (victim == null) {
+            return false;
+        }
+        // Si otro hilo ya la cambió o expulsó no pasa nada: el bucle vuelve a comprobar el tamaño
+        entries.remove(victim.getKey(), victim.getValue());
+        return true;
+    }
+
+    private static Authentication toAuthentication(Claims claims) {
+        Object role = claims.get("role");
+        List<GrantedAuthority> authorities = role == null
+                ? Collections.<GrantedAuthority>emptyList()
+                : Collections.<GrantedAuthority>singletonList(
+                        new SimpleGrantedAuthority("ROLE_" + role.toString().toUpperCase()));
+        return new UsernamePasswordAuthenticationToken(claims.get("username"), null, authorities);
+    }
+
+    /**
+     * Claims y Authentication de un token; se comparten entre peticiones y no deben modificarse
+     */
+    public static class Entry {
+
+        private final Claims claims;
+        private final Authentication authentication;
+        private final long expiresAtMillis;
+        // Sin sincronizar: para la expulsión basta con un valor aproximado
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        Entry(Claims claims, Authentication authentication, long expiresAtMillis) {
+            this.claims = claims;
+            this.authentication = authentication;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        void touch() {
+            lastAccessNanos = System.nanoTime();
+        }
+
+        public Claims getClaims() {
+            return claims;
+        }
+
+        public Authentication getAuthentication() {
+            return authentication;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.elgris.usersapi.security;
+
+import com.elgris.usersapi.ratelimit.TokenBucketRateLimiter;
+import io.jsonwebtoken.Claims;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita las peticiones por cliente. Se ejecuta después de {@link JwtAuthenticationFilter}
+ * para usar el claim username del token; sin token válido se usa la IP del cliente
+ * (esas peticiones reciben el 401 después, en la autorización).
+ * Cada endpoint consume un número de tokens según su coste.
+ * Al ser un OncePerRequestFilter no se ejecuta en el dispatch ERROR: una petición que acaba
+ * en 401/403/500 solo se cobra una vez.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final long LOG_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final List<EndpointCost> endpointCosts;
+    private final long defaultCost;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong loggedCount = new AtomicLong();
+    private final AtomicLong lastLogNanos = new AtomicLong(System.nanoTime() - LOG_WINDOW_NANOS);
+
+    public RateLimitFilter(TokenBucketRateLimiter rateLimiter, List<EndpointCost> endpointCosts, long defaultCost) {
+        this.rateLimiter = rateLimiter;
+        this.endpointCosts = new ArrayList<>(endpointCosts);
+        this.defaultCost = defaultCost;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain chain) throws IOException, ServletException {
+
+        if ("OPTIONS".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String clientKey = clientKey(request);
+        long waitNanos = rateLimiter.tryConsume(clientKey, costOf(request));
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, (TimeUnit.NANOSECONDS.toMillis(waitNanos) + 999) / 1000);
+            recordRejection(clientKey);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Cuenta los rechazos y los resume en el log como mucho una vez por ventana,
+     * para no escribir en stdout por cada petición durante una avalancha
+     */
+    private void recordRejection(String clientKey) {
+        long total = rejectedCount.incrementAndGet();
+        long now = System.nanoTime();
+        long lastLog = lastLogNanos.get();
+        if (now - lastLog >= LOG_WINDOW_NANOS && lastLogNanos.compareAndSet(lastLog, now)) {
+            long previousTotal = loggedCount.getAndSet(total);
+            System.out.println("[RateLimitFilter] " + (total - previousTotal)
+                    + " requests rejected in the last window (latest from " + clientKey + ")");
+        }
+    }
+
+    String clientKey(HttpServletRequest request) {
+        Object claims = request.getAttribute("claims");
+        if (claims instanceof Claims) {
+            Object username = ((Claims) claims).get("username");
+            if (username != null) {
+                return "user:" + username.toString().toLowerCase();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    long costOf(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        for (EndpointCost endpointCost : endpointCosts) {
+            if (endpointCost.matches(request.getMethod(), path, pathMatcher)) {
+                return endpointCost.getCost();
+            }
+        }
+        return defaultCost;
+    }
+
+    /**
+     * Coste en tokens de los endpoints que encajan con un patrón Ant (y método, si se indica)
+     */
+    public static class EndpointCost {
+
+        private String pattern;
+        private String method;
+        private long cost = 1;
+
+        public EndpointCost() {
+        }
+
+        public EndpointCost(String method, String pattern, long cost) {
+            this.method = method;
+            this.pattern = pattern;
+            this.cost = cost;
+        }
+
+        boolean matches(String requestMethod, String path, AntPathMatcher pathMatcher) {
+            return (method == null || method.equalsIgnoreCase(requestMethod))
+                    && pathMatcher.match(pattern, path);
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public long getCost() {
+            return cost;
+        }
+
+        public void setCost(long cost) {
+            this.cost = cost;
+        }
+    }
+}
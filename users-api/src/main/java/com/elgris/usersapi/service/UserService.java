@@ -1,11 +1,15 @@
 package com.elgris.usersapi.service;
 
+import com.elgris.usersapi.datasource.ReplicaReadRouter;
 import com.elgris.usersapi.models.User;
 import com.elgris.usersapi.models.UserRole;
 import com.elgris.usersapi.repository.UserRepository;
+import com.elgris.usersapi.sharding.ShardedUserRepository;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.LinkedList;
@@ -21,6 +25,13 @@ public class UserService {
     @Autowired
     private CircuitBreaker databaseCircuitBreaker;
 
+    @Autowired
+    private ReplicaReadRouter replicaReadRouter;
+
+    // Solo existe con users.sharding.enabled=true
+    @Autowired(required = false)
+    private ShardedUserRepository shardedUserRepository;
+
     /**
      * Obtener todos los usuarios con Circuit Breaker
      */
@@ -28,9 +39,14 @@ public class UserService {
         Supplier<List<User>> decoratedSupplier = databaseCircuitBreaker
                 .decorateSupplier(() -> {
                     System.out.println("[UserService] Fetching all users from database...");
-                    List<User> response = new LinkedList<>();
-                    userRepository.findAll().forEach(response::add);
-                    return response;
+                    if (shardedUserRepository != null) {
+                        return shardedUserRepository.findAll();
+                    }
+                    return replicaReadRouter.read(() -> {
+                        List<User> response = new LinkedList<>();
+                        userRepository.findAll().forEach(response::add);
+                        return response;
+                    });
                 });
 
         try {
@@ -44,6 +60,38 @@ public class UserService {
         }
     }
 
+    /**
+     * Obtener una página de usuarios ordenados por username con Circuit Breaker
+     */
+    public List<User> getUsersPage(int page, int size) {
+        // Se valida antes del Circuit Breaker: una página imposible no es un fallo de la BD
+        if (page < 0 || size < 1 || ((long) page + 1) * size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid page " + page + " of size " + size);
+        }
+        Supplier<List<User>> decoratedSupplier = databaseCircuitBreaker
+                .decorateSupplier(() -> {
+                    System.out.println("[UserService] Fetching users page " + page + " (size " + size + ") from database...");
+                    if (shardedUserRepository != null) {
+                        return shardedUserRepository.findPage(page, size);
+                    }
+                    return replicaReadRouter.read(() -> new LinkedList<>(userRepository
+                            .findAll(new PageRequest(page, size, Sort.Direction.ASC, "username"))
+                            .getContent()));
+                });
+
+        try {
+            return decoratedSupplier.get();
+        } catch (CallNotPermittedException e) {
+            System.out.println("[UserService] Circuit Breaker is OPEN - returning fallback user list page");
+            List<User> fallbackUsers = getFallbackUserList();
+            int from = (int) Math.min((long) page * size, fallbackUsers.size());
+            return new LinkedList<>(fallbackUsers.subList(from, Math.min(from + size, fallbackUsers.size())));
+        } catch (Exception e) {
+            System.err.println("[UserService] Error fetching users page " + page + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
     /**
      * Obtener usuario por username con Circuit Breaker
      */
@@ -51,7 +99,7 @@ public class UserService {
         Supplier<User> decoratedSupplier = databaseCircuitBreaker
                 .decorateSupplier(() -> {
                     System.out.println("[UserService] Fetching user: " + username + " from database...");
-                    return userRepository.findOneByUsername(username);
+                    return findUser(username);
                 });
 
         try {
@@ -72,7 +120,7 @@ public class UserService {
         Supplier<Boolean> decoratedSupplier = databaseCircuitBreaker
                 .decorateSupplier(() -> {
                     System.out.println("[UserService] Checking if user exists: " + username);
-                    return userRepository.findOneByUsername(username) != null;
+                    return findUser(username) != null;
                 });
 
         try {
@@ -100,6 +148,13 @@ public class UserService {
         return databaseCircuitBreaker.getState();
     }
 
+    private User findUser(String username) {
+        if (shardedUserRepository != null) {
+            return shardedUserRepository.findByUsername(username);
+        }
+        return replicaReadRouter.read(() -> userRepository.findOneByUsername(username));
+    }
+
     /**
      * Fallback: Lista de usuarios por defecto cuando la BD no está disponible
      */
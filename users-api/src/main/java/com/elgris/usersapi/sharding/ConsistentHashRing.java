@@ -0,0 +1,77 @@
+package com.elgris.usersapi.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Anillo de hashing consistente de usernames a shards. Cada shard ocupa varios
+ * nodos virtuales para repartir la carga; al añadir un shard solo cambian de
+ * dueño las claves que caen en sus nodos (~1/N). Es inmutable.
+ */
+public class ConsistentHashRing {
+
+    private final NavigableMap<Long, UserShard> ring;
+    private final List<UserShard> shards;
+    private final int virtualNodes;
+
+    public ConsistentHashRing(List<UserShard> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.virtualNodes = virtualNodes;
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.ring = new TreeMap<>();
+        for (UserShard shard : shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(shard.getName() + "#" + i), shard);
+            }
+        }
+    }
+
+    public UserShard shardFor(String username) {
+        Map.Entry<Long, UserShard> entry = ring.ceilingEntry(hash(username));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public ConsistentHashRing withShard(UserShard shard) {
+        if (getShard(shard.getName()) != null) {
+            throw new IllegalArgumentException("Shard already exists: " + shard.getName());
+        }
+        List<UserShard> extended = new ArrayList<>(shards);
+        extended.add(shard);
+        return new ConsistentHashRing(extended, virtualNodes);
+    }
+
+    public UserShard getShard(String name) {
+        for (UserShard shard : shards) {
+            if (shard.getName().equals(name)) {
+                return shard;
+            }
+        }
+        return null;
+    }
+
+    public List<UserShard> getShards() {
+        return shards;
+    }
+
+    static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.elgris.usersapi.sharding;
+
+import com.elgris.usersapi.models.User;
+
+import java.util.List;
+
+/**
+ * Añade un shard sin parar el servicio:
+ * 1. Se activa el anillo nuevo manteniendo el anterior (lecturas con fallback, escrituras dobles),
+ *    después de que terminen las escrituras que aún usaban solo el anillo anterior.
+ * 2. Se copian al shard nuevo, por lotes, los usuarios que ahora le pertenecen.
+ * 3. Se retira el anillo anterior. Las copias en los shards antiguos se conservan.
+ * Si la copia falla se vuelve al anillo anterior; las escrituras dobles lo mantienen al día.
+ * El anillo nuevo solo vive en memoria: las copias antiguas se borran aparte con {@link #removeOrphans()},
+ * cuando el shard ya está en la configuración y sobreviviría a un reinicio.
+ */
+public class ShardRebalancer {
+
+    private final ShardedUserRepository repository;
+    private final int batchSize;
+
+    public ShardRebalancer(ShardedUserRepository repository, int batchSize) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return número de usuarios movidos al shard nuevo
+     */
+    public synchronized int addShard(UserShard newShard) {
+        ConsistentHashRing oldRing = repository.getRing();
+        ConsistentHashRing newRing = oldRing.withShard(newShard);
+        newShard.initializeSchema();
+
+        System.out.printf("[ShardRebalancer] Adding shard %s (%d -> %d shards)%n",
+                newShard.getName(), oldRing.getShards().size(), newRing.getShards().size());
+
+        repository.beginMigration(newRing);
+        int moved = 0;
+        try {
+            for (UserShard source : oldRing.getShards()) {
+                moved += copyOwnedUsers(source, newShard, newRing);
+            }
+        } catch (RuntimeException e) {
+            repository.abortMigration();
+            System.err.println("[ShardRebalancer] Copy to " + newShard.getName() + " failed, rebalance aborted: "
+                    + e.getMessage());
+            throw e;
+        }
+        repository.completeMigration();
+
+        System.out.printf("[ShardRebalancer] Shard %s added: %d users copied, old copies kept until orphan cleanup%n",
+                newShard.getName(), moved);
+        return moved;
+    }
+
+    /**
+     * Borra de cada shard los usuarios que según el anillo actual pertenecen a otro.
+     * Solo es seguro cuando el anillo actual es el de la configuración: si no, tras un reinicio
+     * los usuarios movidos se buscarían en shards que ya no los tienen.
+     * Se puede relanzar si una limpieza anterior quedó a medias.
+     */
+    public synchronized int removeOrphans() {
+        ConsistentHashRing ring = repository.getRing();
+        int removed = 0;
+        for (UserShard shard : ring.getShards()) {
+            String after = "";
+            List<User> batch;
+            while (!(batch = shard.findAfter(after, batchSize)).isEmpty()) {
+                for (User user : batch) {
+                    if (ring.shardFor(user.getUsername()) != shard) {
+                        removed += shard.delete(user.getUsername());
+                    }
+                }
+                after = batch.get(batch.size() - 1).getUsername();
+            }
+        }
+        return removed;
+    }
+
+    private int copyOwnedUsers(UserShard source, UserShard target, ConsistentHashRing ring) {
+        int copied = 0;
+        String after = "";
+        List<User> batch;
+        while (!(batch = source.findAfter(after, batchSize)).isEmpty()) {
+            for (User user : batch) {
+                // insertIfAbsent: una escritura doble más reciente en el destino no se pisa
+                if (ring.shardFor(user.getUsername()) == target) {
+                    target.insertIfAbsent(user);
+                    copied++;
+                }
+            }
+            after = batch.get(batch.size() - 1).getUsername();
+        }
+        return copied;
+    }
+}
@@ -0,0 +1,259 @@
+package com.elgris.usersapi.sharding;
+
+import com.elgris.usersapi.models.User;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Repositorio de usuarios repartido en shards por hash consistente del username.
+ *
+ * Las búsquedas por username van solo al shard dueño. Los listados consultan
+ * todos los shards en paralelo (scatter-gather) y mezclan los resultados ordenados
+ * por username. Si fallan (caídos, Circuit Breaker abierto o sin respuesta a tiempo)
+ * más de maxMissingShards shards, el listado falla en vez de devolver datos incompletos.
+ *
+ * Durante un rebalanceo ({@link ShardRebalancer}) se mantiene el anillo anterior:
+ * las lecturas prueban el dueño nuevo y después el antiguo, y las escrituras van a ambos.
+ * Cambiar de topología espera a las escrituras en curso, así que ninguna escritura que
+ * vio la topología anterior termina después de empezar la copia.
+ */
+public class ShardedUserRepository {
+
+    private final ExecutorService scatterExecutor;
+    private final long timeoutMs;
+    private final int maxMissingShards;
+    private final AtomicLong partialListings = new AtomicLong();
+    // Escrituras: lectura compartida; cambios de topología: exclusiva
+    private final ReadWriteLock topologyLock = new ReentrantReadWriteLock();
+    private volatile Topology topology;
+
+    public ShardedUserRepository(ConsistentHashRing ring, ExecutorService scatterExecutor, long timeoutMs,
+                                 int maxMissingShards) {
+        this.topology = new Topology(ring, null);
+        this.scatterExecutor = scatterExecutor;
+        this.timeoutMs = timeoutMs;
+        this.maxMissingShards = maxMissingShards;
+    }
+
+    public User findByUsername(String username) {
+        Topology current = topology;
+        UserShard owner = current.ring.shardFor(username);
+        User user = owner.call(() -> owner.findByUsername(username));
+
+        if (user == null && current.previous != null) {
+            UserShard previousOwner = current.previous.shardFor(username);
+            if (previousOwner != owner) {
+                user = previousOwner.call(() -> previousOwner.findByUsername(username));
+            }
+        }
+        return user;
+    }
+
+    public void save(User user) {
+        topologyLock.readLock().lock();
+        try {
+            Topology current = topology;
+            UserShard owner = current.ring.shardFor(user.getUsername());
+            owner.call(() -> {
+                owner.save(user);
+                return null;
+            });
+
+            if (current.previous != null) {
+                UserShard previousOwner = current.previous.shardFor(user.getUsername());
+                if (previousOwner != owner) {
+                    previousOwner.call(() -> {
+                        previousOwner.save(user);
+                        return null;
+                    });
+                }
+            }
+        } finally {
+            topologyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Todos los usuarios de todos los shards, ordenados por username
+     */
+    public List<User> findAll() {
+        return scatterGather(UserShard::findAllOrdered, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Página de usuarios ordenados por username. Cada shard devuelve sus primeros
+     * (page + 1) * size usuarios, así que el coste crece con la profundidad de la página.
+     */
+    public List<User> findPage(int page, int size) {
+        long end = ((long) page + 1) * size;
+        if (page < 0 || size < 1 || end > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid page " + page + " of size " + size);
+        }
+        int limit = (int) end;
+        List<User> merged = scatterGather(shard -> shard.findFirstOrdered(limit), limit);
+        int from = Math.min(page * size, merged.size());
+        return new LinkedList<>(merged.subList(from, merged.size()));
+    }
+
+    public ConsistentHashRing getRing() {
+        return topology.ring;
+    }
+
+    public boolean isRebalancing() {
+        return topology.previous != null;
+    }
+
+    /**
+     * Listados devueltos sin algún shard (solo posible con maxMissingShards &gt; 0)
+     */
+    public long getPartialListings() {
+        return partialListings.get();
+    }
+
+    public void shutdown() {
+        scatterExecutor.shutdownNow();
+    }
+
+    void beginMigration(ConsistentHashRing newRing) {
+        switchTopology(new Topology(newRing, topology.ring));
+    }
+
+    void completeMigration() {
+        switchTopology(new Topology(topology.ring, null));
+    }
+
+    void abortMigration() {
+        switchTopology(new Topology(topology.previous, null));
+    }
+
+    /**
+     * Cambia la topología cuando terminan las escrituras en curso con la anterior
+     */
+    private void switchTopology(Topology next) {
+        topologyLock.writeLock().lock();
+        try {
+            topology = next;
+        } finally {
+            topologyLock.writeLock().unlock();
+        }
+    }
+
+    private List<User> scatterGather(Function<UserShard, List<User>> query, int limit) {
+        List<UserShard> shards = topology.ring.getShards();
+        // submit() en vez de CompletableFuture: cancel(true) sí interrumpe la consulta en curso
+        List<Future<List<User>>> futures = new ArrayList<>(shards.size());
+        for (UserShard shard : shards) {
+            futures.add(scatterExecutor.submit(() -> shard.call(() -> query.apply(shard))));
+        }
+
+        // Un único plazo para todo el listado, no timeoutMs por shard
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        List<List<User>> partials = new ArrayList<>(shards.size());
+        List<String> missing = new ArrayList<>();
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    long remaining = Math.max(0, deadline - System.nanoTime());
+                    partials.add(futures.get(i).get(remaining, TimeUnit.NANOSECONDS));
+                } catch (ExecutionException e) {
+                    missing.add(shards.get(i).getName());
+                    System.err.println("[ShardedUserRepository] Shard " + shards.get(i).getName()
+                            + " failed: " + e.getCause().getMessage());
+                } catch (TimeoutException e) {
+                    missing.add(shards.get(i).getName());
+                    System.err.println("[ShardedUserRepository] Shard " + shards.get(i).getName()
+                            + " timed out after " + timeoutMs + "ms");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        } finally {
+            for (Future<List<User>> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        if (partials.isEmpty() || missing.size() > maxMissingShards) {
+            throw new IllegalStateException("Listing failed, shards not answering: " + missing);
+        }
+        if (!missing.isEmpty()) {
+            partialListings.incrementAndGet();
+            System.err.println("[ShardedUserRepository] Partial listing without shards " + missing);
+        }
+        return mergeSorted(partials, limit);
+    }
+
+    /**
+     * Mezcla k listas ya ordenadas por username, descartando duplicados
+     * (durante un rebalanceo un usuario puede estar en dos shards)
+     */
+    static List<User> mergeSorted(List<List<User>> sortedLists, int limit) {
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+                Comparator.comparing((Cursor cursor) -> cursor.head.getUsername()));
+        for (List<User> list : sortedLists) {
+            Iterator<User> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                heap.add(new Cursor(iterator));
+            }
+        }
+
+        List<User> merged = new ArrayList<>();
+        String lastUsername = null;
+        while (!heap.isEmpty() && merged.size() < limit) {
+            Cursor cursor = heap.poll();
+            if (!cursor.head.getUsername().equals(lastUsername)) {
+                merged.add(cursor.head);
+                lastUsername = cursor.head.getUsername();
+            }
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static class Cursor {
+
+        private final Iterator<User> iterator;
+        private User head;
+
+        Cursor(Iterator<User> iterator) {
+            this.iterator = iterator;
+            this.head = iterator.next();
+        }
+
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            head = iterator.next();
+            return true;
+        }
+    }
+
+    private static class Topology {
+
+        private final ConsistentHashRing ring;
+        private final ConsistentHashRing previous;
+
+        Topology(ConsistentHashRing ring, ConsistentHashRing previous) {
+            this.ring = ring;
+            this.previous = previous;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.elgris.usersapi.sharding;
+
+import com.elgris.usersapi.models.User;
+import com.elgris.usersapi.models.UserRole;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Un shard de usuarios: su propia base de datos (misma tabla users que la entidad JPA)
+ * y su propio Circuit Breaker
+ */
+public class UserShard {
+
+    private static final String COLUMNS = "username, firstname, lastname, role";
+
+    private static final RowMapper<User> USER_ROW_MAPPER = (rs, rowNum) -> {
+        User user = new User();
+        user.setUsername(rs.getString("username"));
+        user.setFirstname(rs.getString("firstname"));
+        user.setLastname(rs.getString("lastname"));
+        int role = rs.getInt("role");
+        user.setRole(rs.wasNull() ? null : UserRole.values()[role]);
+        return user;
+    };
+
+    private final String name;
+    private final JdbcTemplate jdbcTemplate;
+    private final CircuitBreaker circuitBreaker;
+
+    public UserShard(String name, JdbcTemplate jdbcTemplate, CircuitBreaker circuitBreaker) {
+        this.name = name;
+        this.jdbcTemplate = jdbcTemplate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    DataSource getDataSource() {
+        return jdbcTemplate.getDataSource();
+    }
+
+    /**
+     * Ejecuta una operación sobre el shard a través de su Circuit Breaker
+     */
+    public <T> T call(Supplier<T> operation) {
+        return circuitBreaker.executeSupplier(operation);
+    }
+
+    public void initializeSchema() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS users ("
+                + "username VARCHAR(255) NOT NULL PRIMARY KEY, "
+                + "firstname VARCHAR(255), "
+                + "lastname VARCHAR(255), "
+                + "role INTEGER)");
+    }
+
+    public User findByUsername(String username) {
+        List<User> users = jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM users WHERE username = ?", USER_ROW_MAPPER, username);
+        return users.isEmpty() ? null : users.get(0);
+    }
+
+    public List<User> findAllOrdered() {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM users ORDER BY username", USER_ROW_MAPPER);
+    }
+
+    public List<User> findFirstOrdered(int limit) {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM users ORDER BY username LIMIT ?", USER_ROW_MAPPER, limit);
+    }
+
+    /**
+     * Lectura por lotes con keyset (username > after), usada por el rebalanceo
+     */
+    public List<User> findAfter(String afterUsername, int limit) {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM users WHERE username > ? ORDER BY username LIMIT ?",
+                USER_ROW_MAPPER, afterUsername, limit);
+    }
+
+    public long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+    }
+
+    public void save(User user) {
+        int updated = jdbcTemplate.update(
+                "UPDATE users SET firstname = ?, lastname = ?, role = ? WHERE username = ?",
+                user.getFirstname(), user.getLastname(), roleOf(user), user.getUsername());
+        if (updated == 0 && !insertIfAbsent(user)) {
+            // Otro hilo lo insertó entre medias: aplicar nuestra versión encima
+            save(user);
+        }
+    }
+
+    /**
+     * Inserta el usuario salvo que ya exista (no pisa escrituras más recientes)
+     *
+     * @return true si se insertó
+     */
+    public boolean insertIfAbsent(User user) {
+        try {
+            jdbcTemplate.update("INSERT INTO users (" + COLUMNS + ") VALUES (?, ?, ?, ?)",
+                    user.getUsername(), user.getFirstname(), user.getLastname(), roleOf(user));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public int delete(String username) {
+        return jdbcTemplate.update("DELETE FROM users WHERE username = ?", username);
+    }
+
+    private static Integer roleOf(User user) {
+        return user.getRole() == null ? null : user.getRole().ordinal();
+    }
+}
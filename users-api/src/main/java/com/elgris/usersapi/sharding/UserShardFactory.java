@@ -0,0 +1,67 @@
+package com.elgris.usersapi.sharding;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.apache.tomcat.jdbc.pool.DataSourceProxy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Crea shards con su DataSource y su Circuit Breaker (shard-&lt;nombre&gt;) en el registry
+ */
+public class UserShardFactory {
+
+    private final CircuitBreakerRegistry registry;
+    private final String defaultDriverClassName;
+    private final String defaultUsername;
+    private final String defaultPassword;
+
+    public UserShardFactory(CircuitBreakerRegistry registry, String defaultDriverClassName,
+                            String defaultUsername, String defaultPassword) {
+        this.registry = registry;
+        this.defaultDriverClassName = defaultDriverClassName;
+        this.defaultUsername = defaultUsername;
+        this.defaultPassword = defaultPassword;
+    }
+
+    public UserShard create(String name, String url, String username, String password) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(DataSourceBuilder.create()
+                .url(url)
+                .driverClassName(defaultDriverClassName)
+                .username(username != null ? username : defaultUsername)
+                .password(password != null ? password : defaultPassword)
+                .build());
+
+        CircuitBreaker circuitBreaker = registry.circuitBreaker("shard-" + name);
+        circuitBreaker.getEventPublisher()
+                .onStateTransition(event ->
+                    System.out.printf("[Circuit Breaker] Shard %s CB: %s -> %s%n", name,
+                        event.getStateTransition().getFromState(),
+                        event.getStateTransition().getToState()));
+
+        return new UserShard(name, jdbcTemplate, circuitBreaker);
+    }
+
+    /**
+     * Libera un shard que no llegó a entrar en el anillo: cierra su pool de
+     * conexiones y quita su Circuit Breaker del registry
+     */
+    public void destroy(UserShard shard) {
+        registry.remove("shard-" + shard.getName());
+
+        DataSource dataSource = shard.getDataSource();
+        try {
+            if (dataSource instanceof DataSourceProxy) {
+                // close() sin argumentos: close(boolean) cerraría también las conexiones en uso
+                ((DataSourceProxy) dataSource).close();
+            } else if (dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) dataSource).close();
+            }
+        } catch (Exception e) {
+            System.err.println("[UserShardFactory] Could not close data source of shard " + shard.getName()
+                    + ": " + e.getMessage());
+        }
+    }
+}
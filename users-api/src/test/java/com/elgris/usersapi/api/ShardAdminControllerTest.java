@@ -0,0 +1,126 @@
+package com.elgris.usersapi.api;
+
+import com.elgris.usersapi.config.ShardingProperties;
+import com.elgris.usersapi.sharding.ConsistentHashRing;
+import com.elgris.usersapi.sharding.ShardRebalancer;
+import com.elgris.usersapi.sharding.ShardedUserRepository;
+import com.elgris.usersapi.sharding.UserShard;
+import com.elgris.usersapi.sharding.UserShardFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ShardAdminControllerTest {
+
+    @Mock
+    private ShardedUserRepository shardedUserRepository;
+
+    @Mock
+    private ShardRebalancer shardRebalancer;
+
+    @Mock
+    private UserShardFactory userShardFactory;
+
+    @Mock
+    private ConsistentHashRing ring;
+
+    @Spy
+    private ShardingProperties shardingProperties = new ShardingProperties();
+
+    @InjectMocks
+    private ShardAdminController shardAdminController;
+
+    private UserShard shard;
+
+    @Before
+    public void setUp() {
+        shard = mock(UserShard.class);
+        when(shard.getName()).thenReturn("shard2");
+        when(shardedUserRepository.getRing()).thenReturn(ring);
+        when(userShardFactory.create("shard2", "jdbc:h2:mem:shard2", null, null)).thenReturn(shard);
+        shardingProperties.getStandbyShards().add(standby("shard2", "jdbc:h2:mem:shard2"));
+    }
+
+    @Test
+    public void testAddShard_UndeclaredShardIsRejectedWithoutConnecting() {
+        ResponseEntity<Map<String, Object>> response = shardAdminController.addShard("evil");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(userShardFactory, never()).create(anyString(), anyString(), anyString(), anyString());
+        verify(shardRebalancer, never()).addShard(any(UserShard.class));
+    }
+
+    @Test
+    public void testAddShard_FailedRebalanceReleasesShardAndReturns500() {
+        when(shardRebalancer.addShard(shard)).thenThrow(new IllegalStateException("shard unreachable"));
+
+        ResponseEntity<Map<String, Object>> response = shardAdminController.addShard("shard2");
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertTrue(response.getBody().get("error").toString().contains("shard unreachable"));
+        verify(userShardFactory).destroy(shard);
+    }
+
+    @Test
+    public void testAddShard_DuplicateRejectedByRingReleasesShardAndReturns409() {
+        when(shardRebalancer.addShard(shard)).thenThrow(new IllegalArgumentException("Shard already exists: shard2"));
+
+        ResponseEntity<Map<String, Object>> response = shardAdminController.addShard("shard2");
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(userShardFactory).destroy(shard);
+    }
+
+    @Test
+    public void testRemoveOrphans_RejectedWhileRuntimeShardIsNotConfigured() {
+        shardingProperties.getShards().add(standby("shard0", "jdbc:h2:mem:shard0"));
+        List<UserShard> running = Arrays.asList(shard("shard0"), shard);
+        when(ring.getShards()).thenReturn(running);
+
+        ResponseEntity<Map<String, Object>> response = shardAdminController.removeOrphans();
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(shardRebalancer, never()).removeOrphans();
+    }
+
+    @Test
+    public void testRemoveOrphans_RunsOnceRingMatchesConfiguration() {
+        shardingProperties.getShards().add(standby("shard0", "jdbc:h2:mem:shard0"));
+        shardingProperties.getShards().add(standby("shard2", "jdbc:h2:mem:shard2"));
+        List<UserShard> running = Arrays.asList(shard("shard0"), shard);
+        when(ring.getShards()).thenReturn(running);
+        when(shardRebalancer.removeOrphans()).thenReturn(42);
+
+        ResponseEntity<Map<String, Object>> response = shardAdminController.removeOrphans();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(42, response.getBody().get("removedUsers"));
+    }
+
+    private static UserShard shard(String name) {
+        UserShard shard = mock(UserShard.class);
+        when(shard.getName()).thenReturn(name);
+        return shard;
+    }
+
+    private static ShardingProperties.Shard standby(String name, String url) {
+        ShardingProperties.Shard definition = new ShardingProperties.Shard();
+        definition.setName(name);
+        definition.setUrl(url);
+        return definition;
+    }
+}
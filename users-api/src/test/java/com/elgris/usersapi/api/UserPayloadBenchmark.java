@@ -0,0 +1,100 @@
+package com.elgris.usersapi.api;
+
+import com.elgris.usersapi.config.CborHttpMessageConverter;
+import com.elgris.usersapi.config.SmileHttpMessageConverter;
+import com.elgris.usersapi.models.User;
+import com.elgris.usersapi.models.UserRole;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compara tamaño de payload y tiempos de codificación/decodificación de JSON,
+ * Smile y CBOR para listas de 1, 100 y 10.000 usuarios.
+ *
+ * No entra en el "mvn test" normal (el nombre no acaba en Test); ejecutar con:
+ *   ./mvnw test -Dtest=UserPayloadBenchmark
+ */
+public class UserPayloadBenchmark {
+
+    private static final int[] SIZES = {1, 100, 10000};
+    private static final long TARGET_USERS_PER_RUN = 200000;
+
+    @Test
+    public void comparePayloadFormats() throws Exception {
+        String[] names = {"json", "smile", "cbor"};
+        ObjectMapper[] mappers = {
+                Jackson2ObjectMapperBuilder.json().build(),
+                new SmileHttpMessageConverter().getObjectMapper(),
+                new CborHttpMessageConverter().getObjectMapper()
+        };
+
+        System.out.printf("%-6s %6s %10s %12s %12s%n", "format", "users", "bytes", "encode(us)", "decode(us)");
+        for (int size : SIZES) {
+            List<User> users = users(size);
+            int iterations = (int) Math.max(10, TARGET_USERS_PER_RUN / size);
+            int jsonBytes = 0;
+
+            for (int f = 0; f < mappers.length; f++) {
+                ObjectMapper mapper = mappers[f];
+                byte[] payload = mapper.writeValueAsBytes(users);
+                User[] decoded = mapper.readValue(payload, User[].class);
+                assertEquals(size, decoded.length);
+                assertEquals(users.get(size - 1).getUsername(), decoded[size - 1].getUsername());
+
+                if (f == 0) {
+                    jsonBytes = payload.length;
+                } else {
+                    assertTrue(names[f] + " should be smaller than json", payload.length < jsonBytes);
+                }
+
+                // Calentamiento del JIT antes de medir
+                measureEncode(mapper, users, iterations);
+                measureDecode(mapper, payload, iterations);
+
+                double encodeMicros = measureEncode(mapper, users, iterations);
+                double decodeMicros = measureDecode(mapper, payload, iterations);
+                System.out.printf("%-6s %6d %10d %12.2f %12.2f%n",
+                        names[f], size, payload.length, encodeMicros, decodeMicros);
+            }
+        }
+    }
+
+    private static double measureEncode(ObjectMapper mapper, List<User> users, int iterations) throws Exception {
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bytes += mapper.writeValueAsBytes(users).length;
+        }
+        assertTrue(bytes > 0);
+        return (System.nanoTime() - start) / 1000.0 / iterations;
+    }
+
+    private static double measureDecode(ObjectMapper mapper, byte[] payload, int iterations) throws Exception {
+        long count = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            count += mapper.readValue(payload, User[].class).length;
+        }
+        assertTrue(count > 0);
+        return (System.nanoTime() - start) / 1000.0 / iterations;
+    }
+
+    private static List<User> users(int size) {
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setFirstname("Firstname" + i);
+            user.setLastname("Lastname" + i);
+            user.setRole(i % 10 == 0 ? UserRole.ADMIN : UserRole.USER);
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,139 @@
+package com.elgris.usersapi.api;
+
+import com.elgris.usersapi.config.CborHttpMessageConverter;
+import com.elgris.usersapi.config.ContentNegotiationConfiguration;
+import com.elgris.usersapi.config.SmileHttpMessageConverter;
+import com.elgris.usersapi.models.User;
+import com.elgris.usersapi.models.UserRole;
+import com.elgris.usersapi.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UsersControllerContentNegotiationTest {
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private UsersController usersController;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new MappingJackson2HttpMessageConverter());
+        new ContentNegotiationConfiguration().extendMessageConverters(converters);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(usersController)
+                .setMessageConverters(converters.toArray(new HttpMessageConverter<?>[0]))
+                .build();
+
+        when(userService.getAllUsers()).thenReturn(Arrays.asList(user("johnd", "John"), user("janed", "Jane")));
+        when(userService.getUserByUsername("johnd")).thenReturn(user("johnd", "John"));
+    }
+
+    @Test
+    public void testGetUsers_DefaultsToJson() throws Exception {
+        mockMvc.perform(get("/users/"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void testGetUsers_Smile() throws Exception {
+        MvcResult result = mockMvc.perform(get("/users/").accept(SmileHttpMessageConverter.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SmileHttpMessageConverter.APPLICATION_SMILE))
+                .andReturn();
+
+        assertUsers(new SmileHttpMessageConverter().getObjectMapper(), result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    public void testGetUsers_Cbor() throws Exception {
+        MvcResult result = mockMvc.perform(get("/users/").accept(CborHttpMessageConverter.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CborHttpMessageConverter.APPLICATION_CBOR))
+                .andReturn();
+
+        assertUsers(new CborHttpMessageConverter().getObjectMapper(), result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    public void testGetUser_Smile() throws Exception {
+        MvcResult result = mockMvc.perform(get("/users/johnd")
+                        .requestAttr("claims", claims("johnd"))
+                        .accept(SmileHttpMessageConverter.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SmileHttpMessageConverter.APPLICATION_SMILE))
+                .andReturn();
+
+        assertUser(new SmileHttpMessageConverter().getObjectMapper(), result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    public void testGetUser_Cbor() throws Exception {
+        MvcResult result = mockMvc.perform(get("/users/johnd")
+                        .requestAttr("claims", claims("johnd"))
+                        .accept(CborHttpMessageConverter.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CborHttpMessageConverter.APPLICATION_CBOR))
+                .andReturn();
+
+        assertUser(new CborHttpMessageConverter().getObjectMapper(), result.getResponse().getContentAsByteArray());
+    }
+
+    private void assertUser(ObjectMapper mapper, byte[] body) throws Exception {
+        User user = mapper.readValue(body, User.class);
+        assertEquals("johnd", user.getUsername());
+        assertEquals("John", user.getFirstname());
+        assertEquals(UserRole.USER, user.getRole());
+    }
+
+    private void assertUsers(ObjectMapper mapper, byte[] body) throws Exception {
+        User[] users = mapper.readValue(body, User[].class);
+        assertEquals(2, users.length);
+        assertEquals("johnd", users[0].getUsername());
+        assertEquals(UserRole.USER, users[1].getRole());
+    }
+
+    private static Claims claims(String username) {
+        Claims claims = new DefaultClaims();
+        claims.put("username", username);
+        return claims;
+    }
+
+    private static User user(String username, String firstname) {
+        User user = new User();
+        user.setUsername(username);
+        user.setFirstname(firstname);
+        user.setLastname("Doe");
+        user.setRole(UserRole.USER);
+        return user;
+    }
+}
@@ -0,0 +1,54 @@
+package com.elgris.usersapi.api;
+
+import com.elgris.usersapi.service.UserService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UsersControllerTest {
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private UsersController usersController;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(usersController).build();
+    }
+
+    @Test
+    public void testGetUsersPage_ClampsSize() throws Exception {
+        when(userService.getUsersPage(2, 1000)).thenReturn(new ArrayList<>());
+
+        mockMvc.perform(get("/users/").param("page", "2").param("size", "5000"))
+                .andExpect(status().isOk());
+
+        verify(userService).getUsersPage(2, 1000);
+    }
+
+    @Test
+    public void testGetUsersPage_TooDeepPageIsRejected() throws Exception {
+        mockMvc.perform(get("/users/").param("page", "3000000").param("size", "1000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(userService, never()).getUsersPage(anyInt(), anyInt());
+    }
+}
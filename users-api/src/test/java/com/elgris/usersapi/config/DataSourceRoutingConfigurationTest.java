@@ -0,0 +1,59 @@
+package com.elgris.usersapi.config;
+
+import com.elgris.usersapi.datasource.ReadWriteRoutingDataSource;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "users.datasource.replicas[0].url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "spring.datasource.tomcat.max-active=7"
+})
+public class DataSourceRoutingConfigurationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void testWithReplicas_RoutesAndKeepsTomcatPoolSettingsOnPrimary() {
+        assertTrue(dataSource instanceof ReadWriteRoutingDataSource);
+        Object primary = ((ReadWriteRoutingDataSource) dataSource).getPrimaryDataSource();
+        assertEquals(7, ((org.apache.tomcat.jdbc.pool.DataSource) primary).getMaxActive());
+    }
+
+    @Test
+    public void testCondition_NoReplicasLeavesBootDataSource() {
+        assertFalse(matches(new MockEnvironment()));
+    }
+
+    @Test
+    public void testCondition_ReplicaFromEnvironmentVariable() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SystemEnvironmentPropertySource("env",
+                Collections.<String, Object>singletonMap("USERS_DATASOURCE_REPLICAS[0]_URL", "jdbc:h2:mem:replica1")));
+
+        assertTrue(matches(environment));
+    }
+
+    private static boolean matches(org.springframework.core.env.ConfigurableEnvironment environment) {
+        ConditionContext context = mock(ConditionContext.class);
+        when(context.getEnvironment()).thenReturn(environment);
+        return new DataSourceRoutingConfiguration.ReplicasConfiguredCondition()
+                .getMatchOutcome(context, null)
+                .isMatch();
+    }
+}
@@ -0,0 +1,67 @@
+package com.elgris.usersapi.configuration;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "users.rate-limit.enabled=false")
+public class SecurityConfigurationTest {
+
+    @Autowired
+    private FilterChainProxy springSecurityFilterChain;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Test
+    public void testStatelessChain_KeepsSecurityHeadersWithoutSession() throws Exception {
+        String token = Jwts.builder()
+                .claim("username", "johnd")
+                .claim("role", "USER")
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(SignatureAlgorithm.HS256, jwtSecret.getBytes())
+                .compact();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/johnd");
+        request.setServletPath("/users/johnd");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        springSecurityFilterChain.doFilter(request, response, chain);
+
+        assertNotNull("Request must reach the application", chain.getRequest());
+        assertNull(request.getSession(false));
+        assertEquals("nosniff", response.getHeader("X-Content-Type-Options"));
+        assertEquals("DENY", response.getHeader("X-Frame-Options"));
+        assertTrue(response.getHeader("Cache-Control").contains("no-store"));
+    }
+
+    @Test
+    public void testMissingToken_Returns401() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/johnd");
+        request.setServletPath("/users/johnd");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        springSecurityFilterChain.doFilter(request, response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+}
@@ -0,0 +1,245 @@
+package com.elgris.usersapi.datasource;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Usa varias bases H2 en memoria como primario y réplicas. Cada base guarda su
+ * propio nombre en el firstname de johnd, así se sabe qué nodo respondió.
+ */
+public class ReplicaReadRouterTest {
+
+    private CircuitBreakerRegistry registry;
+    private JdbcTemplate jdbcTemplate;
+    private ThreadPoolExecutor executor;
+    private ReadReplica replica1;
+    private ReadReplica replica2;
+
+    private final Supplier<String> whoAnswered = () -> jdbcTemplate.queryForObject(
+            "SELECT firstname FROM users WHERE username = 'johnd'", String.class);
+
+    @Before
+    public void setUp() {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put("replica1", h2("replica1", true));
+        targets.put("replica2", h2("replica2", true));
+        targets.put("broken", h2("broken", false));
+
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource();
+        routingDataSource.setDefaultTargetDataSource(h2("primary", true));
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.afterPropertiesSet();
+
+        jdbcTemplate = new JdbcTemplate(routingDataSource);
+        registry = CircuitBreakerRegistry.ofDefaults();
+        executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(4);
+        replica1 = replica("replica1");
+        replica2 = replica("replica2");
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testNoReplicas_ReadsFromPrimary() {
+        ReplicaReadRouter router = router(Collections.emptyList(), ReplicaSelectionStrategy.ROUND_ROBIN, false);
+
+        assertEquals("primary", router.read(whoAnswered));
+    }
+
+    @Test
+    public void testRoundRobin_SpreadsReadsAcrossReplicas() {
+        ReplicaReadRouter router = router(Arrays.asList(replica1, replica2), ReplicaSelectionStrategy.ROUND_ROBIN, false);
+
+        Set<String> answered = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            answered.add(router.read(whoAnswered));
+        }
+
+        assertEquals(new HashSet<>(Arrays.asList("replica1", "replica2")), answered);
+        assertNull("Routing key must not leak to the caller thread", DataSourceContextHolder.get());
+    }
+
+    @Test
+    public void testOpenReplicaCircuitBreaker_IsSkipped() {
+        ReplicaReadRouter router = router(Arrays.asList(replica1, replica2), ReplicaSelectionStrategy.ROUND_ROBIN, false);
+        replica1.getCircuitBreaker().transitionToOpenState();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("replica2", router.read(whoAnswered));
+        }
+
+        replica2.getCircuitBreaker().transitionToOpenState();
+        assertEquals("primary", router.read(whoAnswered));
+    }
+
+    @Test
+    public void testFailingReplica_FallsBackToPrimaryAndRecordsFailure() {
+        ReadReplica broken = replica("broken");
+        ReplicaReadRouter router = router(Collections.singletonList(broken), ReplicaSelectionStrategy.ROUND_ROBIN, false);
+
+        assertEquals("primary", router.read(whoAnswered));
+        assertEquals(1, broken.getCircuitBreaker().getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    public void testFailingReplica_TriesAnotherReplicaBeforePrimary() {
+        ReadReplica broken = replica("broken");
+
+        ReplicaReadRouter router = router(Arrays.asList(broken, replica2), ReplicaSelectionStrategy.ROUND_ROBIN, false);
+        assertEquals("replica2", router.read(whoAnswered));
+
+        ReplicaReadRouter hedgingRouter = router(Arrays.asList(broken, replica2), ReplicaSelectionStrategy.LEAST_LATENCY, true);
+        broken.getLatencyTracker().record(1);
+        replica2.getLatencyTracker().record(2);
+        assertEquals("replica2", hedgingRouter.read(whoAnswered));
+    }
+
+    @Test
+    public void testHedgeBudgetExhausted_WaitsForFirstReplica() {
+        ReplicaReadRouter router = router(Arrays.asList(replica1, replica2), ReplicaSelectionStrategy.LEAST_LATENCY, true, 0);
+        replica1.getLatencyTracker().record(1);
+        replica2.getLatencyTracker().record(2);
+
+        Supplier<String> slowOnReplica1 = () -> {
+            if ("replica1".equals(DataSourceContextHolder.get())) {
+                sleep(100);
+            }
+            return whoAnswered.get();
+        };
+
+        assertEquals("replica1", router.read(slowOnReplica1));
+        assertEquals(0, router.getHedgedReads());
+    }
+
+    @Test
+    public void testHedging_FirstAttemptRunsOnCallerThreadEvenWithBusyPool() throws Exception {
+        ReplicaReadRouter router = router(Arrays.asList(replica1, replica2), ReplicaSelectionStrategy.ROUND_ROBIN, true);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < executor.getMaximumPoolSize(); i++) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        try {
+            Thread caller = Thread.currentThread();
+            Supplier<Thread> whichThread = () -> {
+                whoAnswered.get();
+                return Thread.currentThread();
+            };
+
+            long start = System.nanoTime();
+            assertSame(caller, router.read(whichThread));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+            assertFalse("Hedge interrupts must not leak to the caller", Thread.currentThread().isInterrupted());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testLeastLatency_PrefersFasterReplica() {
+        ReplicaReadRouter router = router(Arrays.asList(replica1, replica2), ReplicaSelectionStrategy.LEAST_LATENCY, false);
+        replica1.getLatencyTracker().record(TimeUnit.MILLISECONDS.toNanos(40));
+        replica2.getLatencyTracker().record(TimeUnit.MILLISECONDS.toNanos(2));
+
+        assertEquals("replica2", router.read(whoAnswered));
+    }
+
+    @Test
+    public void testHedgedRead_SecondReplicaWinsWhenFirstIsSlow() {
+        ReplicaReadRouter router = router(Arrays.asList(replica1, replica2), ReplicaSelectionStrategy.LEAST_LATENCY, true);
+        // replica1 queda como preferida (menor media) pero tarda 1s en contestar
+        replica1.getLatencyTracker().record(1);
+        replica2.getLatencyTracker().record(2);
+
+        Supplier<String> slowOnReplica1 = () -> {
+            if ("replica1".equals(DataSourceContextHolder.get())) {
+                sleep(1000);
+            }
+            return whoAnswered.get();
+        };
+
+        long start = System.nanoTime();
+        String answer = router.read(slowOnReplica1);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("replica2", answer);
+        assertEquals(1, router.getHedgedReads());
+        assertTrue("Hedged read took " + elapsedMs + "ms", elapsedMs < 500);
+        assertFalse("Hedge interrupts must not leak to the caller", Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void testHedgeDelay_UsesPercentileOnceWarmedUp() {
+        ReplicaReadRouter router = router(Collections.singletonList(replica1), ReplicaSelectionStrategy.ROUND_ROBIN, true);
+        assertEquals(20, router.hedgeDelayMillis(replica1));
+
+        for (int i = 1; i <= 100; i++) {
+            replica1.getLatencyTracker().record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(95, router.hedgeDelayMillis(replica1));
+    }
+
+    private ReplicaReadRouter router(List<ReadReplica> replicas, ReplicaSelectionStrategy strategy, boolean hedging) {
+        return router(replicas, strategy, hedging, 100);
+    }
+
+    private ReplicaReadRouter router(List<ReadReplica> replicas, ReplicaSelectionStrategy strategy,
+                                     boolean hedging, int hedgeBudgetPercent) {
+        return new ReplicaReadRouter(replicas, strategy, hedging, 0.95, 20, 5, 2000, hedgeBudgetPercent, executor);
+    }
+
+    private ReadReplica replica(String name) {
+        return new ReadReplica(name, registry.circuitBreaker("database-" + name), new LatencyTracker(128));
+    }
+
+    private static DataSource h2(String name, boolean withUsers) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS users");
+        if (withUsers) {
+            jdbc.execute("CREATE TABLE users (username VARCHAR(255) PRIMARY KEY, firstname VARCHAR(255))");
+            jdbc.update("INSERT INTO users (username, firstname) VALUES ('johnd', ?)", name);
+        }
+        return dataSource;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.elgris.usersapi.ratelimit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private TokenBucketRateLimiter rateLimiter;
+
+    @Before
+    public void setUp() {
+        // 10 tokens de ráfaga, 10 tokens/s (uno cada 100ms), inactivo tras 1s
+        rateLimiter = new TokenBucketRateLimiter(10, 10, 1000, 4, clock::get);
+    }
+
+    @Test
+    public void testBurstUpToCapacity_ThenRejectsWithWaitTime() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, rateLimiter.tryConsume("user:johnd", 1));
+        }
+
+        long wait = rateLimiter.tryConsume("user:johnd", 1);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+    }
+
+    @Test
+    public void testTokensRefillOverTime() {
+        assertEquals(0, rateLimiter.tryConsume("user:johnd", 10));
+        assertTrue(rateLimiter.tryConsume("user:johnd", 1) > 0);
+
+        advanceMillis(300);
+
+        assertEquals(0, rateLimiter.tryConsume("user:johnd", 3));
+        assertTrue(rateLimiter.tryConsume("user:johnd", 1) > 0);
+    }
+
+    @Test
+    public void testEndpointCost_ConsumesMoreTokens() {
+        assertEquals(0, rateLimiter.tryConsume("ip:10.0.0.1", 6));
+
+        long wait = rateLimiter.tryConsume("ip:10.0.0.1", 6);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), wait);
+        assertEquals(0, rateLimiter.tryConsume("ip:10.0.0.1", 4));
+    }
+
+    @Test
+    public void testCostAboveCapacity_IsCappedToFullBucket() {
+        assertEquals(0, rateLimiter.tryConsume("user:johnd", 50));
+        assertTrue(rateLimiter.tryConsume("user:johnd", 1) > 0);
+    }
+
+    @Test
+    public void testClientsHaveIndependentBuckets() {
+        assertEquals(0, rateLimiter.tryConsume("user:johnd", 10));
+        assertTrue(rateLimiter.tryConsume("user:johnd", 1) > 0);
+
+        assertEquals(0, rateLimiter.tryConsume("user:janed", 1));
+    }
+
+    @Test
+    public void testIdleBucketsAreEvicted() {
+        rateLimiter.tryConsume("user:johnd", 5);
+        rateLimiter.tryConsume("user:janed", 1);
+        assertEquals(2, rateLimiter.size());
+
+        // johnd se llenó a los 500ms: solo janed lleva más de 1s inactiva
+        advanceMillis(1150);
+        rateLimiter.evictIdle();
+        assertEquals(1, rateLimiter.size());
+
+        advanceMillis(1000);
+        rateLimiter.evictIdle();
+        assertEquals(0, rateLimiter.size());
+    }
+
+    @Test
+    public void testConcurrentConsumers_NeverExceedCapacity() throws InterruptedException {
+        AtomicLong admitted = new AtomicLong();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    if (rateLimiter.tryConsume("user:johnd", 1) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(10, admitted.get());
+    }
+
+    private void advanceMillis(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
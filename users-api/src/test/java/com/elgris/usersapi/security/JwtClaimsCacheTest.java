@@ -0,0 +1,98 @@
+package com.elgris.usersapi.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.junit.Test;
+import org.springframework.security.core.Authentication;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class JwtClaimsCacheTest {
+
+    @Test
+    public void testPut_BuildsAuthenticationFromClaims() {
+        JwtClaimsCache cache = new JwtClaimsCache(10, 60000);
+
+        JwtClaimsCache.Entry entry = cache.put("token", claims("johnd", "USER", 60000));
+
+        Authentication authentication = entry.getAuthentication();
+        assertTrue(authentication.isAuthenticated());
+        assertEquals("johnd", authentication.getPrincipal());
+        assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+        assertSame(entry, cache.get("token"));
+    }
+
+    @Test
+    public void testGet_ExpiredTokenIsNotReturned() {
+        JwtClaimsCache cache = new JwtClaimsCache(10, 60000);
+
+        cache.put("expired", claims("johnd", "USER", -1000));
+
+        assertNull(cache.get("expired"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPut_FullCacheEvictsLeastRecentlyUsed() {
+        JwtClaimsCache cache = new JwtClaimsCache(2, 60000);
+
+        cache.put("first", claims("johnd", "USER", 60000));
+        cache.put("second", claims("janed", "USER", 60000));
+        assertNotNull(cache.get("first"));
+
+        JwtClaimsCache.Entry third = cache.put("third", claims("admin", "ADMIN", 60000));
+
+        assertNotNull(third.getClaims());
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("first"));
+        assertNull(cache.get("second"));
+        assertSame(third, cache.get("third"));
+    }
+
+    @Test
+    public void testPut_ManyTokensStayWithinMaxSize() throws Exception {
+        final JwtClaimsCache cache = new JwtClaimsCache(100, 60000);
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int thread = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        cache.put("token-" + thread + "-" + i, claims("user" + i, "USER", 60000));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Cada hilo puede adelantarse a la expulsión como mucho en una entrada
+        assertTrue(cache.size() <= 100 + threads.length);
+
+        JwtClaimsCache.Entry latest = cache.put("latest", claims("johnd", "USER", 60000));
+        assertSame(latest, cache.get("latest"));
+    }
+
+    @Test
+    public void testPut_ZeroMaxSizeDisablesCache() {
+        JwtClaimsCache cache = new JwtClaimsCache(0, 60000);
+
+        cache.put("token", claims("admin", "ADMIN", 60000));
+
+        assertNull(cache.get("token"));
+    }
+
+    private static Claims claims(String username, String role, long expiresInMs) {
+        Claims claims = new DefaultClaims();
+        claims.put("username", username);
+        claims.put("role", role);
+        claims.setExpiration(new Date(System.currentTimeMillis() + expiresInMs));
+        return claims;
+    }
+}
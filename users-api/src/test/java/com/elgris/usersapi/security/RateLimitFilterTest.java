@@ -0,0 +1,129 @@
+package com.elgris.usersapi.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.DispatcherType;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Recorre la cadena de seguridad completa: el limitador va antes del 401, así que
+ * las peticiones sin token válido también se limitan (por IP).
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "users.rate-limit.capacity=3",
+        "users.rate-limit.refill-per-second=0.001"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class RateLimitFilterTest {
+
+    @Autowired
+    private FilterChainProxy springSecurityFilterChain;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Test
+    public void testInvalidTokens_AreRejectedWith401ThenThrottledByIp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(401, request("/users/johnd", "Bearer not-a-jwt", "10.0.0.1").getStatus());
+        }
+
+        MockHttpServletResponse throttled = request("/users/johnd", "Bearer not-a-jwt", "10.0.0.1");
+        assertEquals(429, throttled.getStatus());
+        assertNotNull(throttled.getHeader("Retry-After"));
+        assertEquals(1, rateLimitFilter.getRejectedCount());
+
+        // Otra IP tiene su propio bucket
+        assertEquals(401, request("/users/johnd", null, "10.0.0.2").getStatus());
+    }
+
+    @Test
+    public void testMissingHeader_IsThrottledByIp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(401, request("/users/johnd", null, "10.0.0.1").getStatus());
+        }
+
+        assertEquals(429, request("/users/johnd", null, "10.0.0.1").getStatus());
+    }
+
+    @Test
+    public void testValidToken_IsKeyedByUsernameNotIp() throws Exception {
+        String token = "Bearer " + token("johnd");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, request("/users/johnd", token, "10.0.0.1").getStatus());
+        }
+        assertEquals(429, request("/users/johnd", token, "10.0.0.1").getStatus());
+
+        // La IP compartida no ha gastado tokens: otro usuario desde la misma IP pasa
+        assertEquals(200, request("/users/janed", "Bearer " + token("janed"), "10.0.0.1").getStatus());
+    }
+
+    @Test
+    public void testErrorDispatch_IsNotCharged() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest error = new MockHttpServletRequest("GET", "/error");
+            error.setServletPath("/error");
+            error.setRemoteAddr("10.0.0.1");
+            error.setDispatcherType(DispatcherType.ERROR);
+            error.setAttribute(WebUtils.ERROR_REQUEST_URI_ATTRIBUTE, "/users/johnd");
+            springSecurityFilterChain.doFilter(error, new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        // El 401 original y su dispatch ERROR cuentan como una sola petición
+        for (int i = 0; i < 3; i++) {
+            assertEquals(401, request("/users/johnd", null, "10.0.0.1").getStatus());
+        }
+        assertEquals(0, rateLimitFilter.getRejectedCount());
+    }
+
+    @Test
+    public void testOptions_IsNotThrottled() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/users/johnd");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            springSecurityFilterChain.doFilter(request, response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+    }
+
+    private MockHttpServletResponse request(String uri, String authorization, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setServletPath(uri);
+        request.setRemoteAddr(remoteAddr);
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        springSecurityFilterChain.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private String token(String username) {
+        return Jwts.builder()
+                .claim("username", username)
+                .claim("role", "USER")
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(SignatureAlgorithm.HS256, jwtSecret.getBytes())
+                .compact();
+    }
+}
@@ -0,0 +1,141 @@
+package com.elgris.usersapi.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.core.annotation.Order;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.filter.GenericFilterBean;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Mide el coste por petición de la cadena de Spring Security antes y después
+ * de la cadena stateless. La cadena "antes" (la configuración por defecto con el
+ * filtro JWT original) se monta en /legacy/** solo para este benchmark.
+ *
+ * No entra en el "mvn test" normal (el nombre no acaba en Test); ejecutar con:
+ *   ./mvnw test -Dtest=SecurityFilterChainBenchmark
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "users.rate-limit.enabled=false",
+        "logging.level.web=INFO",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.springframework.security=INFO"
+})
+public class SecurityFilterChainBenchmark {
+
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 100000;
+
+    @Autowired
+    private FilterChainProxy springSecurityFilterChain;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Test
+    public void compareFilterChains() throws Exception {
+        String token = Jwts.builder()
+                .claim("username", "johnd")
+                .claim("role", "USER")
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(SignatureAlgorithm.HS256, jwtSecret.getBytes())
+                .compact();
+
+        run("/legacy/users/johnd", token);
+        MockHttpServletRequest stateless = run("/users/johnd", token);
+        assertNull("Stateless chain must not create a session", stateless.getSession(false));
+
+        measure("/legacy/users/johnd", token, WARMUP);
+        measure("/users/johnd", token, WARMUP);
+
+        double legacyNanos = measure("/legacy/users/johnd", token, ITERATIONS);
+        double statelessNanos = measure("/users/johnd", token, ITERATIONS);
+
+        System.out.printf("%-10s %14s%n", "chain", "ns/request");
+        System.out.printf("%-10s %14.0f%n", "default", legacyNanos);
+        System.out.printf("%-10s %14.0f%n", "stateless", statelessNanos);
+    }
+
+    private double measure(String path, String token, int iterations) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            run(path, token);
+        }
+        return (System.nanoTime() - start) / (double) iterations;
+    }
+
+    private MockHttpServletRequest run(String path, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        springSecurityFilterChain.doFilter(request, response, chain);
+
+        assertNotNull("Request must reach the application", chain.getRequest());
+        return request;
+    }
+
+    /**
+     * Cadena por defecto de Spring Security con el filtro JWT tal como era antes
+     */
+    @TestConfiguration
+    @Order(1)
+    static class DefaultChainConfiguration extends WebSecurityConfigurerAdapter {
+
+        @Value("${jwt.secret}")
+        private String jwtSecret;
+
+        @Override
+        protected void configure(HttpSecurity http) throws Exception {
+            http.antMatcher("/legacy/**")
+                    .addFilterAfter(new LegacyJwtFilter(jwtSecret), BasicAuthenticationFilter.class);
+        }
+    }
+
+    static class LegacyJwtFilter extends GenericFilterBean {
+
+        private final String jwtSecret;
+
+        LegacyJwtFilter(String jwtSecret) {
+            this.jwtSecret = jwtSecret;
+        }
+
+        public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+                throws IOException, ServletException {
+            String authHeader = ((HttpServletRequest) req).getHeader("authorization");
+            Claims claims = Jwts.parser()
+                    .setSigningKey(jwtSecret.getBytes())
+                    .parseClaimsJws(authHeader.substring(7))
+                    .getBody();
+            req.setAttribute("claims", claims);
+            chain.doFilter(req, res);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.elgris.usersapi.service;
 
+import com.elgris.usersapi.datasource.ReplicaReadRouter;
 import com.elgris.usersapi.models.User;
 import com.elgris.usersapi.models.UserRole;
 import com.elgris.usersapi.repository.UserRepository;
+import com.elgris.usersapi.sharding.ShardedUserRepository;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import org.junit.Before;
@@ -11,6 +13,7 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
@@ -29,6 +32,9 @@ public class UserServiceTest {
     @Mock
     private CircuitBreaker databaseCircuitBreaker;
 
+    @Mock
+    private ReplicaReadRouter replicaReadRouter;
+
     @InjectMocks
     private UserService userService;
 
@@ -47,6 +53,10 @@ public class UserServiceTest {
         
         // ✅ AÑADIDO: Configurar el mock para que tenga nombre
         when(databaseCircuitBreaker.getName()).thenReturn("database");
+
+        // Sin réplicas: el router ejecuta la consulta directamente
+        when(replicaReadRouter.read(any())).thenAnswer(invocation ->
+                ((Supplier<?>) invocation.getArguments()[0]).get());
     }
 
     @Test
@@ -90,6 +100,47 @@ public class UserServiceTest {
         verify(userRepository, times(1)).findOneByUsername(username);
     }
 
+    @Test
+    public void testGetUserByUsername_Sharded_UsesShardedRepository() {
+        // Arrange
+        ShardedUserRepository shardedUserRepository = mock(ShardedUserRepository.class);
+        ReflectionTestUtils.setField(userService, "shardedUserRepository", shardedUserRepository);
+        when(shardedUserRepository.findByUsername("testuser")).thenReturn(testUser);
+
+        when(databaseCircuitBreaker.decorateSupplier(any())).thenAnswer(invocation -> {
+            return invocation.getArguments()[0];
+        });
+
+        // Act
+        User actualUser = userService.getUserByUsername("testuser");
+
+        // Assert
+        assertSame(testUser, actualUser);
+        verify(userRepository, never()).findOneByUsername(anyString());
+    }
+
+    @Test
+    public void testGetUsersPage_OverflowingPageIsRejectedBeforeDatabase() {
+        try {
+            userService.getUsersPage(3000000, 1000);
+            fail("A page past Integer.MAX_VALUE rows should be rejected");
+        } catch (IllegalArgumentException expected) {
+            verify(databaseCircuitBreaker, never()).decorateSupplier(any());
+            verify(userRepository, never()).findAll(any(Pageable.class));
+        }
+    }
+
+    @Test
+    public void testGetUsersPage_LastIntPageIsRejected() {
+        // page + 1 en int daría negativo y pasaría la comprobación
+        try {
+            userService.getUsersPage(Integer.MAX_VALUE, 1);
+            fail("Page Integer.MAX_VALUE should be rejected");
+        } catch (IllegalArgumentException expected) {
+            verify(userRepository, never()).findAll(any(Pageable.class));
+        }
+    }
+
     @Test
     public void testGetUserByUsername_CircuitBreakerOpen_ReturnsFallback() {
         // ✅ TEST SIMPLIFICADO: Verificar que el método de fallback funciona correctamente
@@ -0,0 +1,200 @@
+package com.elgris.usersapi.sharding;
+
+import com.elgris.usersapi.models.User;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.elgris.usersapi.sharding.ShardedUserRepositoryTest.shard;
+import static com.elgris.usersapi.sharding.ShardedUserRepositoryTest.shards;
+import static com.elgris.usersapi.sharding.ShardedUserRepositoryTest.user;
+import static org.junit.Assert.*;
+
+public class ShardRebalancerTest {
+
+    private static final int USERS = 600;
+
+    private CircuitBreakerRegistry registry;
+    private ShardedUserRepository repository;
+    private ShardRebalancer rebalancer;
+
+    @Before
+    public void setUp() {
+        registry = CircuitBreakerRegistry.ofDefaults();
+        List<UserShard> shards = shards(registry, "rebalance-shard0", "rebalance-shard1");
+        repository = new ShardedUserRepository(new ConsistentHashRing(shards, 64),
+                Executors.newFixedThreadPool(3), 2000, 0);
+        // Lotes pequeños para recorrer varias páginas por shard
+        rebalancer = new ShardRebalancer(repository, 50);
+
+        for (int i = 0; i < USERS; i++) {
+            repository.save(user(String.format("user%03d", i)));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    public void testAddShard_MovesOnlyKeysOwnedByNewShard() {
+        Map<String, String> ownersBefore = owners();
+        UserShard newShard = shard(registry, "rebalance-shard2");
+
+        int moved = rebalancer.addShard(newShard);
+
+        assertFalse(repository.isRebalancing());
+        assertEquals(3, repository.getRing().getShards().size());
+        assertEquals(newShard.count(), moved);
+        assertTrue("Roughly a third of the users should move, moved " + moved, moved > 100 && moved < 350);
+
+        Map<String, String> ownersAfter = owners();
+        for (Map.Entry<String, String> entry : ownersAfter.entrySet()) {
+            String after = entry.getValue();
+            assertTrue("Users only move to the new shard",
+                    after.equals(ownersBefore.get(entry.getKey())) || after.equals(newShard.getName()));
+        }
+
+        // Las copias antiguas se conservan hasta la limpieza explícita
+        assertEquals(USERS + moved, totalRows());
+        assertEquals(USERS, repository.findAll().size());
+
+        assertEquals(moved, rebalancer.removeOrphans());
+        assertEquals("No stale copies left behind", USERS, totalRows());
+        assertEquals(USERS, repository.findAll().size());
+        for (int i = 0; i < USERS; i++) {
+            assertNotNull(repository.findByUsername(String.format("user%03d", i)));
+        }
+    }
+
+    @Test
+    public void testAddShard_ExistingNameIsRejected() {
+        try {
+            rebalancer.addShard(new UserShard("rebalance-shard0", new JdbcTemplate(),
+                    registry.circuitBreaker("shard-duplicate")));
+            fail("Adding a shard twice should fail");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(2, repository.getRing().getShards().size());
+        }
+    }
+
+    @Test
+    public void testAddShard_FailedCopyRestoresPreviousRing() {
+        ConsistentHashRing before = repository.getRing();
+        UserShard healthy = shard(registry, "rebalance-broken");
+        UserShard broken = new UserShard(healthy.getName(), new JdbcTemplate(), healthy.getCircuitBreaker()) {
+            @Override
+            public void initializeSchema() {
+            }
+
+            @Override
+            public boolean insertIfAbsent(User user) {
+                throw new IllegalStateException("shard unreachable");
+            }
+        };
+
+        try {
+            rebalancer.addShard(broken);
+            fail("Rebalance should fail when the new shard cannot be written");
+        } catch (IllegalStateException expected) {
+            assertSame(before, repository.getRing());
+            assertFalse(repository.isRebalancing());
+            assertEquals(USERS, repository.findAll().size());
+        }
+    }
+
+    @Test
+    public void testAddShard_WaitsForInFlightWritesBeforeCopying() throws Exception {
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        List<UserShard> oldShards = new ArrayList<>();
+        for (String name : Arrays.asList("barrier-shard0", "barrier-shard1")) {
+            UserShard healthy = shard(registry, name);
+            oldShards.add(new UserShard(name, jdbcTemplate(name), healthy.getCircuitBreaker()) {
+                @Override
+                public void save(User user) {
+                    // La escritura ya vio la topología anterior y se queda a medias
+                    writeStarted.countDown();
+                    try {
+                        releaseWrite.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    super.save(user);
+                }
+            });
+        }
+        ShardedUserRepository barrierRepository = new ShardedUserRepository(new ConsistentHashRing(oldShards, 64),
+                Executors.newFixedThreadPool(2), 2000, 0);
+        ShardRebalancer barrierRebalancer = new ShardRebalancer(barrierRepository, 50);
+        UserShard newShard = shard(registry, "barrier-shard2");
+
+        ConsistentHashRing newRing = barrierRepository.getRing().withShard(newShard);
+        int i = 0;
+        while (newRing.shardFor("late" + i) != newShard) {
+            i++;
+        }
+        String username = "late" + i;
+
+        Thread writer = new Thread(() -> barrierRepository.save(user(username)));
+        Thread rebalance = new Thread(() -> barrierRebalancer.addShard(newShard));
+        try {
+            writer.start();
+            assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+            rebalance.start();
+
+            rebalance.join(300);
+            assertTrue("Rebalance must wait for the in-flight write", rebalance.isAlive());
+            assertFalse(barrierRepository.isRebalancing());
+
+            releaseWrite.countDown();
+            writer.join(5000);
+            rebalance.join(5000);
+
+            assertEquals(3, barrierRepository.getRing().getShards().size());
+            assertNotNull("The write must not be lost", newShard.findByUsername(username));
+            assertNotNull(barrierRepository.findByUsername(username));
+        } finally {
+            releaseWrite.countDown();
+            barrierRepository.shutdown();
+        }
+    }
+
+    private static JdbcTemplate jdbcTemplate(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return new JdbcTemplate(dataSource);
+    }
+
+    private long totalRows() {
+        long total = 0;
+        for (UserShard shard : repository.getRing().getShards()) {
+            total += shard.count();
+        }
+        return total;
+    }
+
+    private Map<String, String> owners() {
+        Map<String, String> owners = new HashMap<>();
+        for (UserShard shard : repository.getRing().getShards()) {
+            for (User user : shard.findAllOrdered()) {
+                owners.put(user.getUsername(), shard.getName());
+            }
+        }
+        return owners;
+    }
+}
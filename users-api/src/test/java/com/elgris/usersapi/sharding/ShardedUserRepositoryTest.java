@@ -0,0 +1,229 @@
+package com.elgris.usersapi.sharding;
+
+import com.elgris.usersapi.models.User;
+import com.elgris.usersapi.models.UserRole;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tres bases H2 en memoria como shards
+ */
+public class ShardedUserRepositoryTest {
+
+    private static final int USERS = 300;
+
+    private List<UserShard> shards;
+    private ShardedUserRepository repository;
+
+    @Before
+    public void setUp() {
+        shards = shards(CircuitBreakerRegistry.ofDefaults(), "repo-shard0", "repo-shard1", "repo-shard2");
+        repository = new ShardedUserRepository(new ConsistentHashRing(shards, 64),
+                Executors.newFixedThreadPool(3), 2000, 0);
+
+        for (int i = 0; i < USERS; i++) {
+            repository.save(user(String.format("user%03d", i)));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    public void testSave_StoresEachUserOnlyInItsOwnerShard() {
+        long total = 0;
+        for (UserShard shard : shards) {
+            long count = shard.count();
+            assertTrue("Shard " + shard.getName() + " should hold some users", count > 0);
+            total += count;
+        }
+        assertEquals(USERS, total);
+
+        UserShard owner = repository.getRing().shardFor("user042");
+        assertNotNull(owner.findByUsername("user042"));
+    }
+
+    @Test
+    public void testFindByUsername() {
+        User user = repository.findByUsername("user123");
+
+        assertNotNull(user);
+        assertEquals("First user123", user.getFirstname());
+        assertEquals(UserRole.USER, user.getRole());
+        assertNull(repository.findByUsername("nobody"));
+    }
+
+    @Test
+    public void testFindAll_MergesAllShardsInOrder() {
+        List<User> users = repository.findAll();
+
+        assertEquals(USERS, users.size());
+        for (int i = 0; i < USERS; i++) {
+            assertEquals(String.format("user%03d", i), users.get(i).getUsername());
+        }
+    }
+
+    @Test
+    public void testFindPage() {
+        List<User> page = repository.findPage(2, 50);
+
+        assertEquals(50, page.size());
+        assertEquals("user100", page.get(0).getUsername());
+        assertEquals("user149", page.get(49).getUsername());
+        assertTrue(repository.findPage(10, 50).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindPage_OverflowingPageIsRejected() {
+        repository.findPage(3000000, 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindPage_LastIntPageIsRejected() {
+        repository.findPage(Integer.MAX_VALUE, 1);
+    }
+
+    @Test
+    public void testOpenShardCircuitBreaker_FailsListings() {
+        shards.get(1).getCircuitBreaker().transitionToOpenState();
+
+        try {
+            repository.findAll();
+            fail("A listing with a shard missing should fail when no shard may be missing");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().contains("repo-shard1"));
+        }
+    }
+
+    @Test
+    public void testOpenShardCircuitBreaker_IsSkippedWithinMaxMissingShards() {
+        ShardedUserRepository tolerant = new ShardedUserRepository(new ConsistentHashRing(shards, 64),
+                Executors.newFixedThreadPool(3), 2000, 1);
+        UserShard down = shards.get(1);
+        long downCount = down.count();
+        down.getCircuitBreaker().transitionToOpenState();
+
+        try {
+            List<User> users = tolerant.findAll();
+            assertEquals(USERS - downCount, users.size());
+            assertEquals(1, tolerant.getPartialListings());
+        } finally {
+            tolerant.shutdown();
+        }
+
+        String ownedByDown = down.findAllOrdered().get(0).getUsername();
+        try {
+            repository.findByUsername(ownedByDown);
+            fail("Lookup on a shard with an open circuit breaker should not be permitted");
+        } catch (CallNotPermittedException expected) {
+            // UserService convierte esto en su usuario de fallback
+        }
+    }
+
+    @Test
+    public void testAllShardCircuitBreakersOpen_FailsAndCountsAsDatabaseFailure() {
+        for (UserShard shard : shards) {
+            shard.getCircuitBreaker().transitionToOpenState();
+        }
+        CircuitBreaker databaseCircuitBreaker = CircuitBreaker.ofDefaults("database");
+
+        try {
+            databaseCircuitBreaker.executeSupplier(repository::findAll);
+            fail("A listing with no shard answering should fail");
+        } catch (IllegalStateException expected) {
+            // UserService lo registra como fallo: al abrirse su Circuit Breaker usa el fallback
+        }
+        assertEquals(1, databaseCircuitBreaker.getMetrics().getNumberOfFailedCalls());
+        assertEquals(0, databaseCircuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
+    }
+
+    @Test
+    public void testSlowShards_ShareOneDeadline() {
+        List<UserShard> slowShards = new ArrayList<>();
+        for (String name : Arrays.asList("slow-shard0", "slow-shard1", "slow-shard2")) {
+            slowShards.add(new UserShard(name, null, CircuitBreaker.ofDefaults("shard-" + name)) {
+                @Override
+                public List<User> findAllOrdered() {
+                    try {
+                        Thread.sleep(5000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new ArrayList<>();
+                }
+            });
+        }
+        ShardedUserRepository slow = new ShardedUserRepository(new ConsistentHashRing(slowShards, 64),
+                Executors.newFixedThreadPool(3), 300, 0);
+
+        long start = System.nanoTime();
+        try {
+            slow.findAll();
+            fail("A listing with every shard timing out should fail");
+        } catch (IllegalStateException expected) {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue("Listing took " + elapsedMs + "ms, expected about one timeout", elapsedMs < 600);
+        } finally {
+            slow.shutdown();
+        }
+    }
+
+    @Test
+    public void testMergeSorted_DropsDuplicates() {
+        List<User> merged = ShardedUserRepository.mergeSorted(Arrays.asList(
+                Arrays.asList(user("a"), user("c"), user("e")),
+                Arrays.asList(user("b"), user("c")),
+                new ArrayList<>()), Integer.MAX_VALUE);
+
+        List<String> usernames = new ArrayList<>();
+        for (User user : merged) {
+            usernames.add(user.getUsername());
+        }
+        assertEquals(Arrays.asList("a", "b", "c", "e"), usernames);
+    }
+
+    static List<UserShard> shards(CircuitBreakerRegistry registry, String... names) {
+        List<UserShard> shards = new ArrayList<>();
+        for (String name : names) {
+            shards.add(shard(registry, name));
+        }
+        return shards;
+    }
+
+    static UserShard shard(CircuitBreakerRegistry registry, String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS users");
+        UserShard shard = new UserShard(name, jdbcTemplate, registry.circuitBreaker("shard-" + name));
+        shard.initializeSchema();
+        return shard;
+    }
+
+    static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setFirstname("First " + username);
+        user.setLastname("Last " + username);
+        user.setRole(UserRole.USER);
+        return user;
+    }
+}
@@ -0,0 +1,29 @@
+package com.elgris.usersapi.sharding;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.apache.tomcat.jdbc.pool.ConnectionPool;
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UserShardFactoryTest {
+
+    @Test
+    public void testDestroy_ClosesPoolAndRemovesCircuitBreaker() {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+        UserShardFactory factory = new UserShardFactory(registry, "org.h2.Driver", "sa", "");
+
+        UserShard shard = factory.create("factory-shard", "jdbc:h2:mem:factory-shard;DB_CLOSE_DELAY=-1", null, null);
+        shard.initializeSchema();
+        // getPool() crea el pool si no existe: se guarda antes de destruir el shard
+        ConnectionPool pool = ((DataSource) shard.getDataSource()).getPool();
+        assertFalse(pool.isClosed());
+        assertTrue(registry.find("shard-factory-shard").isPresent());
+
+        factory.destroy(shard);
+
+        assertTrue("Connection pool should be closed", pool.isClosed());
+        assertFalse(registry.find("shard-factory-shard").isPresent());
+    }
+}